@@ -0,0 +1,141 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.gdal.gdal.gdal;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nom.bdezonia.zorbage.gdal.Gdal;
+import nom.bdezonia.zorbage.misc.DataBundle;
+
+/**
+ * Benchmarks of the banded and multidim read paths over synthetic files.
+ * Each combination of data type, band count, and file layout is measured.
+ * The banded gtiff layouts exercise readBandedData() and the netcdf 4
+ * layouts exercise readMDArrayData().
+ * 
+ * @author Barry DeZonia
+ *
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ReadBenchmarks {
+
+	@Param({"Byte", "UInt16", "Int32", "Float32", "Float64"})
+	public String dataType;
+	
+	@Param({"1", "3"})
+	public int bandCount;
+	
+	@Param({
+		SyntheticData.GTIFF_STRIPED,
+		SyntheticData.GTIFF_TILED,
+		SyntheticData.NETCDF4_CHUNKED,
+		SyntheticData.NETCDF4_CONTIGUOUS,
+		SyntheticData.VSIMEM_GTIFF
+	})
+	public String layout;
+	
+	@Param({"1024"})
+	public int size;
+	
+	private String filename;
+	
+	private long payloadBytes;
+	
+	/**
+	 * Decoded bytes delivered per second. jmh reports this auxiliary counter
+	 * as a rate next to the primary ops/s result. Divide by 1e6 for MB/s.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Bytes {
+		
+		public long bytes;
+		
+		// jmh does not reset aux counters so each iteration must
+		
+		@Setup(Level.Iteration)
+		public void reset() {
+			
+			bytes = 0;
+		}
+	}
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		
+		Gdal.init();
+		
+		int type = gdal.GetDataTypeByName(dataType);
+		
+		filename = SyntheticData.create(layout, type, bandCount, size);
+		
+		payloadBytes = ((long) size) * size * bandCount * (gdal.GetDataTypeSize(type) / 8);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		
+		SyntheticData.delete(filename);
+	}
+	
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	public DataBundle throughput(Bytes counter) {
+		
+		DataBundle bundle = Gdal.readAllDatasets(filename);
+		
+		counter.bytes += payloadBytes;
+		
+		return bundle;
+	}
+	
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public DataBundle latency() {
+		
+		return Gdal.readAllDatasets(filename);
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal.bench;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.gdal.gdal.Band;
+import org.gdal.gdal.Dataset;
+import org.gdal.gdal.Driver;
+import org.gdal.gdal.gdal;
+import org.gdal.gdalconst.gdalconst;
+
+/**
+ * Creates synthetic raster files through gdal for the benchmarks.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+class SyntheticData {
+
+	static final String GTIFF_STRIPED = "gtiff-striped";
+	
+	static final String GTIFF_TILED = "gtiff-tiled";
+	
+	static final String NETCDF4_CHUNKED = "netcdf4-chunked";
+	
+	static final String NETCDF4_CONTIGUOUS = "netcdf4-contiguous";
+	
+	static final String VSIMEM_GTIFF = "vsimem-gtiff";
+	
+	private SyntheticData() { }
+	
+	/**
+	 * Create a file of the given layout filled with a simple gradient.
+	 * 
+	 * @param layout One of the layout names defined in this class
+	 * @param type A gdal data type code
+	 * @param bandCount The number of bands to write
+	 * @param size The number of rows and columns in each band
+	 * @return The gdal name of the created file
+	 */
+	static String create(String layout, int type, int bandCount, int size)
+		throws IOException
+	{
+		final String driverName;
+		
+		final String filename;
+		
+		final String[] creationOptions;
+		
+		if (GTIFF_STRIPED.equals(layout)) {
+			
+			driverName = "GTiff";
+			filename = tempName(".tif");
+			creationOptions = new String[] {"TILED=NO", "BLOCKYSIZE=16", "INTERLEAVE=BAND"};
+		}
+		else if (GTIFF_TILED.equals(layout)) {
+			
+			driverName = "GTiff";
+			filename = tempName(".tif");
+			creationOptions = new String[] {"TILED=YES", "BLOCKXSIZE=256", "BLOCKYSIZE=256", "INTERLEAVE=BAND"};
+		}
+		else if (NETCDF4_CHUNKED.equals(layout)) {
+			
+			// netcdf 4 files are stored as hdf5 files
+			
+			driverName = "netCDF";
+			filename = tempName(".nc");
+			creationOptions = new String[] {"FORMAT=NC4", "CHUNKING=YES"};
+		}
+		else if (NETCDF4_CONTIGUOUS.equals(layout)) {
+			
+			driverName = "netCDF";
+			filename = tempName(".nc");
+			creationOptions = new String[] {"FORMAT=NC4", "CHUNKING=NO"};
+		}
+		else if (VSIMEM_GTIFF.equals(layout)) {
+			
+			driverName = "GTiff";
+			filename = "/vsimem/zorbage-gdal-bench-" + System.nanoTime() + ".tif";
+			creationOptions = new String[] {"TILED=YES", "INTERLEAVE=BAND"};
+		}
+		else {
+			
+			throw new IllegalArgumentException("unknown benchmark layout " + layout);
+		}
+		
+		Driver driver = gdal.GetDriverByName(driverName);
+		
+		if (driver == null)
+			throw new IllegalArgumentException("gdal driver " + driverName + " is not available");
+		
+		Dataset ds = driver.Create(filename, size, size, bandCount, type, creationOptions);
+		
+		if (ds == null)
+			throw new IOException("could not create " + filename + ": " + gdal.GetLastErrorMsg());
+		
+		double[] row = new double[size];
+		
+		for (int b = 1; b <= bandCount; b++) {
+			
+			Band band = ds.GetRasterBand(b);
+			
+			for (int y = 0; y < size; y++) {
+				
+				for (int x = 0; x < size; x++) {
+					
+					row[x] = (x + y + b) % 200;
+				}
+				
+				band.WriteRaster(0, y, size, 1, size, 1, gdalconst.GDT_Float64, row, 0, 0);
+			}
+		}
+		
+		ds.FlushCache();
+		
+		ds.delete();
+		
+		return filename;
+	}
+	
+	static void delete(String filename) {
+		
+		if (filename.startsWith("/vsimem/")) {
+			
+			gdal.Unlink(filename);
+		}
+		else {
+			
+			new File(filename).delete();
+		}
+	}
+	
+	private static String tempName(String suffix) throws IOException {
+		
+		File file = File.createTempFile("zorbage-gdal-bench-", suffix);
+		
+		// gdal wants to create the file itself
+		
+		file.delete();
+		
+		return file.getAbsolutePath();
+	}
+}
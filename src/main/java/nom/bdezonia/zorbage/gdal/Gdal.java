@@ -25,65 +25,68 @@ package nom.bdezonia.zorbage.gdal;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.net.URI;
-import java.util.Enumeration;
-import java.util.Hashtable;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 
 import org.gdal.gdal.Band;
+import org.gdal.gdal.BuildVRTOptions;
 import org.gdal.gdal.Dataset;
+import org.gdal.gdal.Dimension;
+import org.gdal.gdal.EDTComponent;
+import org.gdal.gdal.ExtendedDataType;
 import org.gdal.gdal.Group;
 import org.gdal.gdal.MDArray;
+import org.gdal.gdal.WarpOptions;
 import org.gdal.gdal.gdal;
 import org.gdal.gdalconst.gdalconst;
+import org.gdal.osr.SpatialReference;
 
-import nom.bdezonia.zorbage.algebra.Algebra;
 import nom.bdezonia.zorbage.algebra.Allocatable;
 import nom.bdezonia.zorbage.algebra.G;
-import nom.bdezonia.zorbage.algebra.SetFromBytes;
-import nom.bdezonia.zorbage.algebra.SetFromShorts;
-import nom.bdezonia.zorbage.algebra.SetFromInts;
-import nom.bdezonia.zorbage.algebra.SetFromLongs;
-import nom.bdezonia.zorbage.algebra.SetFromFloats;
-import nom.bdezonia.zorbage.algebra.SetFromDoubles;
 import nom.bdezonia.zorbage.coordinates.CoordinateSpace;
 import nom.bdezonia.zorbage.coordinates.LinearNdCoordinateSpace;
 import nom.bdezonia.zorbage.data.DimensionedDataSource;
-import nom.bdezonia.zorbage.data.DimensionedStorage;
+import nom.bdezonia.zorbage.datasource.IndexedDataSource;
 import nom.bdezonia.zorbage.dataview.PlaneView;
 import nom.bdezonia.zorbage.misc.DataBundle;
 import nom.bdezonia.zorbage.procedure.Procedure2;
 import nom.bdezonia.zorbage.sampling.IntegerIndex;
 import nom.bdezonia.zorbage.sampling.SamplingCartesianIntegerGrid;
 import nom.bdezonia.zorbage.sampling.SamplingIterator;
-import nom.bdezonia.zorbage.type.complex.float32.ComplexFloat32Member;
-import nom.bdezonia.zorbage.type.complex.float64.ComplexFloat64Member;
-import nom.bdezonia.zorbage.type.gaussian.int16.GaussianInt16Member;
-import nom.bdezonia.zorbage.type.gaussian.int32.GaussianInt32Member;
-import nom.bdezonia.zorbage.type.integer.int16.SignedInt16Member;
-import nom.bdezonia.zorbage.type.integer.int16.UnsignedInt16Member;
-import nom.bdezonia.zorbage.type.integer.int32.SignedInt32Member;
-import nom.bdezonia.zorbage.type.integer.int32.UnsignedInt32Member;
-import nom.bdezonia.zorbage.type.integer.int64.SignedInt64Member;
-import nom.bdezonia.zorbage.type.integer.int64.UnsignedInt64Member;
-import nom.bdezonia.zorbage.type.integer.int8.SignedInt8Member;
 import nom.bdezonia.zorbage.type.integer.int8.UnsignedInt8Member;
 import nom.bdezonia.zorbage.type.real.float32.Float32Member;
 import nom.bdezonia.zorbage.type.real.float64.Float64Member;
 
 
-// TODO: does the direction in which zorbage defines axis directions
-//   compared to other systems require scales and offsets of Y values
-//   to be reformulated so coord readouts match all other systems?
-//   My code is always flipping Y coords. Doesn't that screw up Y
-//   scaled coordinate readouts? What package could I use to show a
-//   file from something like netcdf with correct coord readouts?
-
 /**
+ * Static methods for reading gdal supported files into zorbage structures.
+ * <p>
+ * All methods may be called from many threads at once. Each read opens,
+ * uses and closes its own gdal handles on the calling thread so no gdal
+ * object is ever shared between threads. The caches and registries reads
+ * consult (tile cache, metadata index, type readers) are thread safe.
+ * Remote read tuning (including the VSI cache size) is applied as thread
+ * local gdal configuration that is restored when each read ends, so one
+ * caller's options never leak into other reads. Options objects should be
+ * fully configured before being shared between threads, and listeners
+ * given to shared options may be called from several threads at once.
  * 
  * @author Barry DeZonia
  *
@@ -92,14 +95,96 @@ public class Gdal {
 
 	private static final int MAXCOLS = 512;
 	
+	// the most elements a banded reader will fetch in one ReadRaster() call
+	
+	private static final int MAXSTRIPELEMS = 1 << 20;
+	
+	// the result of the first successful init(), or -1 before then
+	
+	private static int initialized = -1;
+	
+	// limits the number of top level reads in progress; null when unlimited
+	
+	private static volatile Semaphore readPermits = null;
+	
 	/**
-	 * This must be called once at startup by users of this gdal interface package
+	 * This must be called once at startup by users of this gdal interface
+	 * package. It is safe to call from several threads; gdal's drivers are
+	 * registered only once and later calls return the first success.
 	 */
-	public static int
+	public static synchronized int
 	
 		init()
 	{
-
+		if (initialized == 0)
+			return 0;
+		
+		int status = probeGdal();
+		
+		if (status == 0) {
+			
+			gdal.AllRegister();
+			
+			initialized = 0;
+		}
+		
+		return status;
+	}
+	
+	/**
+	 * Limit the number of reads that may be in progress at once across the
+	 * whole process. Reads beyond the limit wait for a running read to
+	 * finish. Readers that nest other reads (mosaics, time series) count as
+	 * a single read. Pass 0 (the default) for no limit.
+	 * 
+	 * @param maxReads
+	 */
+	public static void
+	
+		setMaxConcurrentReads(int maxReads)
+	{
+		if (maxReads < 0)
+			throw new IllegalArgumentException("read limit cannot be negative");
+		
+		readPermits = (maxReads == 0) ? null : new Semaphore(maxReads, true);
+	}
+	
+	// run one top level read while holding a permit of the current limit
+	
+	private static <T> T
+	
+		limited(Supplier<T> read)
+	{
+		Semaphore permits = readPermits;
+		
+		if (permits == null)
+			return read.get();
+		
+		try {
+			
+			permits.acquire();
+			
+		} catch (InterruptedException e) {
+			
+			Thread.currentThread().interrupt();
+			
+			throw new CancellationException("interrupted while waiting to read");
+		}
+		
+		try {
+			
+			return read.get();
+			
+		} finally {
+			
+			permits.release();
+		}
+	}
+	
+	private static int
+	
+		probeGdal()
+	{
 		try {
 		
 			String cmd = "gdalinfo --version";
@@ -136,8 +221,6 @@ public class Gdal {
 			return 3;
 		}
 		
-		gdal.AllRegister();
-		
 		return 0;
 	}
 
@@ -152,660 +235,2159 @@ public class Gdal {
 	
 			readAllDatasets(URI fileURI)
 	{
+		return readAllDatasets(fileURI, new GdalReadOptions());
+	}
+	
+	/**
+	 * 
+	 * @param fileURI
+	 * @param options
+	 * @return
+	 */
+	public static
+	
+		DataBundle
+	
+			readAllDatasets(URI fileURI, GdalReadOptions options)
+	{
 
-		String scheme = fileURI.getScheme();
-		
-		final String gdalName;
-		
-		if ("file".equals(scheme)) {
-		
-			//System.out.println("FILE SCHEME");
-			
-			gdalName = fileURI.getPath();  // just grab the file name
-		}
+		String gdalName = VsiNames.toGdalName(fileURI);
 		
-		else if ("ftp".equals(scheme) ||
-					"http".equals(scheme) ||
-					"https".equals(scheme))
-		{
-			//System.out.println("HTTP SCHEME");
-			
-			gdalName = "/vsicurl/" + fileURI.toString();
-		}
-		
-		else {  // make a good faith attempt to load something
-			
-			//System.out.println("UNKNOWN SCHEME "+fileURI.getScheme());
-			
-			gdalName = "/vsicurl/" + fileURI.toString();
-		}
-
-		return readAllDatasets(gdalName);
+		return readAllDatasets(gdalName, options);
 	}
 	
 	/**
 	 * 
 	 * @param filename
 	 */
-	@SuppressWarnings("unchecked")
 	public static
 	
 		DataBundle
 	
 			readAllDatasets(String filename)
 	{
-		final DataBundle outputs = new DataBundle();
+		return readAllDatasets(filename, new GdalReadOptions());
+	}
+	
+	/**
+	 * 
+	 * @param filename
+	 * @param options
+	 */
+	public static
+	
+		DataBundle
+	
+			readAllDatasets(String filename, GdalReadOptions options)
+	{
+		return read(filename, options).data();
+	}
+	
+	/**
+	 * Read all the datasets of a file and report any data that could not
+	 * be read (such as string valued arrays) rather than dropping it
+	 * silently.
+	 * 
+	 * @param filename
+	 * @param options
+	 */
+	public static
+	
+		GdalReadResult
+	
+			read(String filename, GdalReadOptions options)
+	{
+		return read(filename, filename, options);
+	}
+	
+	// source is the name metrics are recorded under: the filename unless
+	//   the file is a temporary /vsimem/ stand in for caller supplied data
+	
+	private static GdalReadResult read(String filename, String source, GdalReadOptions options) {
 		
-		Dataset ds = gdal.OpenEx(filename, gdalconst.OF_MULTIDIM_RASTER);
+		return limited(() -> {
 
-		final Group group;
-		
-		if (ds == null) {
+			List<GdalSkippedData> skipped = new ArrayList<>();
 			
-			group = null;
-		}
-		else {
-			
-			group = ds.GetRootGroup();
-		}
-
-		// let's deal with a multi dim dataset if we can
-		
-		Vector<String> mdArrayNames =  new Vector<String>();
-		
-		if (group != null) {
+			GdalDatasetMetrics metrics = GdalDatasetMetrics.forCall(options, source);
 			
-			//@SuppressWarnings("unchecked")
-			mdArrayNames = (Vector<String>) group.GetMDArrayNames();
-
-			System.out.println("Found "+mdArrayNames.size()+" mdarrays");
-		}
+			long t0 = (metrics == null) ? 0 : System.nanoTime();
 		
-		if (mdArrayNames.size() > 0) {
+			try (RemoteTuning tuning = RemoteTuning.isRemote(filename) ? RemoteTuning.apply(options) : null) {
 			
-			for (int i = 0; i < mdArrayNames.size(); i++) {
-		
-				String name = mdArrayNames.get(i);
-				
-				System.out.println("array " + i + " is called " + name);
-				
-				MDArray data = group.OpenMDArray(name);
-				
-				long nDim = data.GetDimensionCount();
-				
-				if (nDim > Integer.MAX_VALUE) {
-					
-					throw new IllegalArgumentException("cannot handle this many dimensions!");
-				}
-
-				Double[] scales = new Double[(int) nDim];
-				
-				data.GetScale(scales);
-
-				Double[] offsets = new Double[(int) nDim];
-				
-				data.GetOffset(offsets);
-				
-				for (int k = 0; k < nDim; k++) {
-					System.out.println("  axis "+k+" dim "+data.GetDimension(k).GetSize()+" scale "+scales[k]+" offset "+offsets[k]);
-				}
-
-				System.out.println("  name "+data.GetName());
-				
-				System.out.println("  full name "+data.GetFullName());
-				
-				System.out.println("  unit "+data.GetUnit());
-				
-				System.out.println("  data type "+gdal.GetDataTypeName(data.GetDataType().GetNumericDataType()));
-				
-				System.out.println("  and has " + data.GetDimensionCount() + " dimensions.");
-				
-				System.out.println("  any structural info follows here:");
+				DataBundle data = readDatasets(filename, options, skipped, metrics);
 				
-				Hashtable<String,?> ht = data.GetStructuralInfo();
-				
-				Enumeration<String> keys = ht.keys();
-				
-				Iterator<String> iter = keys.asIterator();
-				
-				while (iter.hasNext()) {
-					
-					String key = iter.next();
-					
-					System.out.println("    key "+key+" value "+ht.get(key));
-				}
-				
-				int type = data.GetDataType().GetNumericDataType();
-				
-				if (type == gdalconst.GDT_Byte) {
-
-					outputs.mergeUInt8(readMDArrayUByteData(data, G.UINT8.construct()));
-				}
-				else if (type == gdalconst.GDT_Int8) {
-
-					outputs.mergeInt8(readMDArrayByteData(data, G.INT8.construct()));
-				}
-				else if (type == gdalconst.GDT_UInt16) {
-					
-					outputs.mergeUInt16(readMDArrayUShortData(data, G.UINT16.construct()));
-				}
-				else if (type == gdalconst.GDT_Int16) {
-					
-					outputs.mergeInt16(readMDArrayShortData(data, G.INT16.construct()));
-				}
-				else if (type == gdalconst.GDT_UInt32) {
-					
-					outputs.mergeUInt32(readMDArrayUIntData(data, G.UINT32.construct()));
-				}
-				else if (type == gdalconst.GDT_Int32) {
-					
-					outputs.mergeInt32(readMDArrayIntData(data, G.INT32.construct()));
-				}
-				else if (type == gdalconst.GDT_UInt64) {
-					
-					outputs.mergeUInt64(readMDArrayULongData(data, G.UINT64.construct()));
-				}
-				else if (type == gdalconst.GDT_Int64) {
-					
-					outputs.mergeInt64(readMDArrayLongData(data, G.INT64.construct()));
-				}
-				else if (type == gdalconst.GDT_Float32) {
-					
-					outputs.mergeFlt32(readMDArrayFloatData(data, G.FLT.construct()));
-				}
-				else if (type == gdalconst.GDT_Float64) {
-					
-					outputs.mergeFlt64(readMDArrayDoubleData(data, G.DBL.construct()));
-				}
-				else if (type == gdalconst.GDT_CInt16) {
-					
-					outputs.mergeGaussianInt16(readMDArrayGaussianShortData(data, G.GAUSS16.construct()));
-				}
-				else if (type == gdalconst.GDT_CInt32) {
-					
-					outputs.mergeGaussianInt32(readMDArrayGaussianIntData(data, G.GAUSS32.construct()));
-				}
-				else if (type == gdalconst.GDT_CFloat32) {
-					
-					outputs.mergeComplexFlt32(readMDArrayComplexFloatData(data, G.CFLT.construct()));
-				}
-				else if (type == gdalconst.GDT_CFloat64) {
-					
-					outputs.mergeComplexFlt64(readMDArrayComplexDoubleData(data, G.CDBL.construct()));
-				}
-				else if (type != -1) {
-				
-					System.out.println("Ignoring unknown data type "+gdal.GetDataTypeName(type));
-				}
-			}
-		}
-		else {
-		
-			// old fashioned 1, 2, or 3 dim image
-	
-			ds = gdal.OpenEx(filename);
-			
-			Vector<String> subdatasetInfo = (Vector<String>) ds.GetMetadata_List("SUBDATASETS");
+				if (metrics != null) metrics.recordCall(System.nanoTime() - t0);
 			
-			int counter = 1;
-			
-			for (String entry : subdatasetInfo) {
-			
-				String namePrefix = "SUBDATASET_" + counter + "_NAME=";
-				
-				if (entry.startsWith(namePrefix)) {
-				
-					String[] pair = entry.split("=");
-					
-					if (pair.length != 2)
-						throw new IllegalArgumentException("gdal metadata: too many equal signs in internal filename");
-					
-					DataBundle lowerbundle = readAllDatasets(pair[1]);
-					
-					outputs.mergeAll(lowerbundle);
-					
-					counter++;
-				}
+				return new GdalReadResult(data, skipped, metrics);
 			}
+		});
+	}
 	
-			int type = -1;
-		
-			int xSize = ds.GetRasterXSize();
-			
-			int ySize = ds.getRasterYSize();
-			
-			for (int i = 1; i <= ds.GetRasterCount(); i++) {
-			
-				Band band = ds.GetRasterBand(i);
-				
-				if (type == -1) {
-	
-					type = band.GetRasterDataType();
-				}
-				
-				if (band.GetRasterDataType() != type) {
-					
-					throw new IllegalArgumentException("data has multiple different band types!");
-				}
-				
-				if ((band.GetXSize() != xSize) || (band.GetYSize() != ySize)) {
-					
-					throw new IllegalArgumentException("data has multiple band resolutions!");
-				}
-			}
-			
-			if (type == gdalconst.GDT_Byte) {
+	/**
+	 * Read all the datasets of a file whose contents are held in memory.
+	 * The bytes are registered with gdal's /vsimem/ file system, read, and
+	 * then unlinked. No temporary file is written to disk.
+	 * 
+	 * @param bytes The complete contents of a data file
+	 */
+	public static
 	
-				outputs.mergeUInt8(readBandedUByteData(ds, G.UINT8.construct()));
-			}
-			else if (type == gdalconst.GDT_Int8) {
+		DataBundle
 	
-				outputs.mergeInt8(readBandedByteData(ds, G.INT8.construct()));
-			}
-			else if (type == gdalconst.GDT_UInt16) {
-				
-				outputs.mergeUInt16(readBandedUShortData(ds, G.UINT16.construct()));
-			}
-			else if (type == gdalconst.GDT_Int16) {
-				
-				outputs.mergeInt16(readBandedShortData(ds, G.INT16.construct()));
-			}
-			else if (type == gdalconst.GDT_UInt32) {
-				
-				outputs.mergeUInt32(readBandedUIntData(ds, G.UINT32.construct()));
-			}
-			else if (type == gdalconst.GDT_Int32) {
-				
-				outputs.mergeInt32(readBandedIntData(ds, G.INT32.construct()));
-			}
-			else if (type == gdalconst.GDT_UInt64) {
-				
-				outputs.mergeUInt64(readBandedUIntData(ds, G.UINT64.construct()));
-			}
-			else if (type == gdalconst.GDT_Int64) {
-				
-				outputs.mergeInt64(readBandedIntData(ds, G.INT64.construct()));
-			}
-			else if (type == gdalconst.GDT_Float32) {
-				
-				outputs.mergeFlt32(readBandedFloatData(ds, G.FLT.construct()));
-			}
-			else if (type == gdalconst.GDT_Float64) {
-				
-				outputs.mergeFlt64(readBandedDoubleData(ds, G.DBL.construct()));
-			}
-			else if (type == gdalconst.GDT_CInt16) {
-				
-				outputs.mergeGaussianInt16(readBandedGaussianShortData(ds, G.GAUSS16.construct()));
-			}
-			else if (type == gdalconst.GDT_CInt32) {
-				
-				outputs.mergeGaussianInt32(readBandedGaussianIntData(ds, G.GAUSS32.construct()));
-			}
-			else if (type == gdalconst.GDT_CFloat32) {
-				
-				outputs.mergeComplexFlt32(readBandedComplexFloatData(ds, G.CFLT.construct()));
-			}
-			else if (type == gdalconst.GDT_CFloat64) {
-				
-				outputs.mergeComplexFlt64(readBandedComplexDoubleData(ds, G.CDBL.construct()));
-			}
-			else if (type != -1) {
-			
-				System.out.println("Ignoring unknown data type "+gdal.GetDataTypeName(type));
-			}
-		}
-
-		return outputs;
+			readAllDatasets(byte[] bytes)
+	{
+		return readAllDatasets(bytes, new GdalReadOptions());
 	}
 	
-	private static <U extends Allocatable<U>> DimensionedDataSource<U>
+	/**
+	 * Read all the datasets of a file whose contents are held in memory.
+	 * The bytes are registered with gdal's /vsimem/ file system, read, and
+	 * then unlinked. No temporary file is written to disk. The gdal java
+	 * bindings make one copy of the bytes into gdal's memory.
+	 * 
+	 * @param bytes The complete contents of a data file
+	 * @param options
+	 */
+	public static
+	
+		DataBundle
 	
-		readBandedData(Dataset ds, U var, Procedure2<BandBuffer, U> proc)
+			readAllDatasets(byte[] bytes, GdalReadOptions options)
 	{
-		int numPlanes = ds.getRasterCount();
-		
-		long[] dims;
+		String name = VsiNames.tempMemName();
 		
-		if (numPlanes == 1) {
+		gdal.FileFromMemBuffer(name, bytes);
 		
-			dims = new long[] {ds.getRasterXSize(), ds.GetRasterYSize()};
-		}
-		else {
+		try {
 			
-			dims = new long[] {ds.getRasterXSize(), ds.GetRasterYSize(), numPlanes};
-		}
-		
-		DimensionedDataSource<U> data = DimensionedStorage.allocate(var, dims);
-		
-		PlaneView<U> planes = new PlaneView<>(data, 0, 1);
-		
-		int numD = data.numDimensions();
-		
-		for (int i = 0; i < numPlanes; i++) {
+			return read(name, GdalMetrics.IN_MEMORY, options).data();
 			
-			Band band = ds.GetRasterBand(i+1);
+		} finally {
 			
-			if (i == 0) {
+			gdal.Unlink(name);
+		}
+	}
+	
+	/**
+	 * Read all the datasets of a file whose contents are the remaining
+	 * bytes of a buffer. The buffer's position is not changed. Heap buffers
+	 * that exactly wrap their backing array are passed to gdal without an
+	 * extra copy.
+	 * 
+	 * @param buffer The complete contents of a data file
+	 * @param options
+	 */
+	public static
+	
+		DataBundle
+	
+			readAllDatasets(java.nio.ByteBuffer buffer, GdalReadOptions options)
+	{
+		final byte[] bytes;
+		
+		if (buffer.hasArray() &&
+				buffer.arrayOffset() == 0 &&
+				buffer.position() == 0 &&
+				buffer.remaining() == buffer.array().length)
+		{
+			bytes = buffer.array();
+		}
+		else {
+			
+			bytes = new byte[buffer.remaining()];
+			
+			buffer.duplicate().get(bytes);
+		}
+		
+		return readAllDatasets(bytes, options);
+	}
+	
+	/**
+	 * Read all the datasets of a file whose contents are supplied by a
+	 * stream. The stream is read to its end but not closed.
+	 * 
+	 * @param stream The complete contents of a data file
+	 * @param options
+	 * @throws IOException if the stream cannot be read
+	 */
+	public static
+	
+		DataBundle
+	
+			readAllDatasets(InputStream stream, GdalReadOptions options)
+		
+		throws IOException
+	{
+		return readAllDatasets(stream.readAllBytes(), options);
+	}
+
+	/**
+	 * Describe the structure of a file (subdatasets, array shapes, types,
+	 * value scales and units) without reading any of its data.
+	 *
+	 * @param filename
+	 */
+	public static
+
+		GdalStructure
+
+			describe(String filename)
+	{
+		return probeStructure(filename);
+	}
+
+	/**
+	 * Describe the structure of a file, answering from the given index when
+	 * the file is indexed and unchanged. Otherwise the file is probed with
+	 * gdal and its structure is added to the index.
+	 *
+	 * @param filename
+	 * @param index
+	 * @throws IOException if the index cannot be updated
+	 */
+	public static
+
+		GdalStructure
+
+			describe(String filename, GdalMetadataIndex index)
+
+		throws IOException
+	{
+		GdalStructure structure = index.lookup(filename);
+
+		if (structure == null) {
+
+			structure = probeStructure(filename);
+
+			index.store(structure);
+		}
+
+		return structure;
+	}
+
+	/**
+	 * Read a subset or rearrangement of one multidim array. gdal applies the
+	 * view and transpose before any data is read so only the selected
+	 * values are ever fetched or decoded. For instance a view of "[3,...]"
+	 * reads only the fourth time step of a (time, z, y, x) cube, and a view
+	 * of "[:,::2,::2]" reads every other row and column of a 3-d array.
+	 *
+	 * @param filename
+	 * @param arrayName The array's name in the root group or its full name (starting with /)
+	 * @param view A gdal MDArray.GetView() expression (slices, strides, fields) or null
+	 * @param axisOrder For each axis of the result, the (gdal order) axis of the view it comes from, or null
+	 * @param options
+	 */
+	public static
+
+		DataBundle
+
+			readMDArray(String filename, String arrayName, String view, int[] axisOrder, GdalReadOptions options)
+	{
+		return limited(() -> {
+
+			try (RemoteTuning tuning = RemoteTuning.isRemote(filename) ? RemoteTuning.apply(options) : null) {
+
+				ReadContext ctx = new ReadContext(options, filename);
+
+				long t0 = (ctx.metrics == null) ? 0 : System.nanoTime();
+
+				Dataset ds = gdal.OpenEx(filename, gdalconst.OF_MULTIDIM_RASTER);
+
+				if (ctx.metrics != null) ctx.metrics.recordOpen(System.nanoTime() - t0);
+
+				if (ds == null)
+					throw new IllegalArgumentException("gdal cannot open "+filename+" as multidimensional data");
+
+				try {
+
+					Group group = ds.GetRootGroup();
+
+					MDArray data = arrayName.startsWith("/") ?
+									group.OpenMDArrayFromFullname(arrayName) :
+									group.OpenMDArray(arrayName);
+
+					if (data == null)
+						throw new IllegalArgumentException("no array named "+arrayName+" in "+filename);
+
+					if (view != null && view.length() > 0) {
+
+						data = data.GetView(view);
+
+						if (data == null)
+							throw new IllegalArgumentException("invalid view "+view+": "+gdal.GetLastErrorMsg());
+					}
+
+					if (axisOrder != null) {
+
+						if (axisOrder.length != data.GetDimensionCount())
+							throw new IllegalArgumentException("axis order must name each of the "+data.GetDimensionCount()+" axes");
+
+						data = data.Transpose(axisOrder);
+
+						if (data == null)
+							throw new IllegalArgumentException("invalid axis order: "+gdal.GetLastErrorMsg());
+					}
+
+					DataBundle outputs = new DataBundle();
+
+					try {
+
+						readArray(data, outputs, ctx);
+
+					} catch (RuntimeException | Error e) {
+
+						ctx.releaseCharged(outputs);
+
+						throw e;
+					}
+
+					if (ctx.skipped.size() > 0)
+						throw new IllegalArgumentException("cannot read "+ctx.skipped.get(0));
+
+					return outputs;
+
+				} finally {
+
+					ds.delete();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Read a mosaic of raster files as if it were one file. A gdal VRT of
+	 * the inputs is built in /vsimem/ and read through the usual block
+	 * aligned readers so gdal does the mosaicking while it decodes. Only
+	 * the output sized datasets are allocated. (An existing .vrt file can
+	 * simply be passed to readAllDatasets().)
+	 *
+	 * @param inputs The gdal names of the files to mosaic
+	 * @param vrtOptions gdalbuildvrt style arguments (such as "-resolution", "highest") or null
+	 * @param options
+	 */
+	public static
+
+		DataBundle
+
+			readMosaic(List<String> inputs, List<String> vrtOptions, GdalReadOptions options)
+	{
+		return readMosaicResult(inputs, vrtOptions, options).data();
+	}
+
+	/**
+	 * Read a mosaic of raster files as readMosaic() does and report any
+	 * data that could not be read rather than dropping it silently.
+	 *
+	 * @param inputs The gdal names of the files to mosaic
+	 * @param vrtOptions gdalbuildvrt style arguments (such as "-resolution", "highest") or null
+	 * @param options
+	 */
+	public static
+
+		GdalReadResult
+
+			readMosaicResult(List<String> inputs, List<String> vrtOptions, GdalReadOptions options)
+	{
+		return limited(() -> {
+
+			if (inputs.size() == 0)
+				throw new IllegalArgumentException("no files to mosaic");
+
+			boolean remote = false;
+
+			for (String input : inputs) {
+
+				remote = remote || RemoteTuning.isRemote(input);
+			}
+
+			String vrtName = VsiNames.tempMemName(".vrt");
+
+			try (RemoteTuning tuning = remote ? RemoteTuning.apply(options) : null) {
+
+				BuildVRTOptions vrtOpts = new BuildVRTOptions(new Vector<String>((vrtOptions == null) ? new ArrayList<String>() : vrtOptions));
+
+				try {
+
+					GdalCancellation cancellation = options.cancellation();
+
+					Dataset vrt;
+
+					if (cancellation == null)
+						vrt = gdal.BuildVRT(vrtName, inputs.toArray(new String[0]), vrtOpts);
+					else
+						vrt = gdal.BuildVRT(vrtName, inputs.toArray(new String[0]), vrtOpts, cancellation.gdalCallback());
+
+					if (vrt == null) {
+
+						if (cancellation != null)
+							cancellation.check("a mosaic");
+
+						throw new IllegalArgumentException("gdal could not build a mosaic: "+gdal.GetLastErrorMsg());
+					}
+
+					// closing the vrt writes its description into /vsimem/
+
+					vrt.delete();
+
+				} finally {
+
+					vrtOpts.delete();
+				}
+
+				List<GdalSkippedData> skipped = new ArrayList<>();
+
+				GdalDatasetMetrics metrics = GdalDatasetMetrics.forCall(options, "mosaic of " + inputs);
+
+				long t0 = (metrics == null) ? 0 : System.nanoTime();
+
+				DataBundle data = readDatasets(vrtName, options, skipped, metrics);
+
+				if (metrics != null) metrics.recordCall(System.nanoTime() - t0);
+
+				return new GdalReadResult(data, skipped, metrics);
+
+			} finally {
+
+				gdal.Unlink(vrtName);
+			}
+		});
+	}
+
+	/**
+	 * Read a file reprojected and resampled onto a target grid. gdal.Warp()
+	 * builds a warped VRT in /vsimem/ (using the multithreaded warper) and
+	 * the VRT is read through the block aligned readers, so decoding and
+	 * resampling happen together in native code as strips are read. The
+	 * spatial axes of the returned datasets' coordinate spaces match the
+	 * target grid.
+	 *
+	 * @param filename
+	 * @param target The grid to warp onto
+	 * @param options
+	 */
+	public static
+
+		DataBundle
+
+			readWarped(String filename, GdalWarpTarget target, GdalReadOptions options)
+	{
+		return readWarpedResult(filename, target, options).data();
+	}
+
+	/**
+	 * Read a file warped onto a target grid as readWarped() does and
+	 * report any data that could not be read rather than dropping it
+	 * silently.
+	 *
+	 * @param filename
+	 * @param target The grid to warp onto
+	 * @param options
+	 */
+	public static
+
+		GdalReadResult
+
+			readWarpedResult(String filename, GdalWarpTarget target, GdalReadOptions options)
+	{
+		return limited(() -> {
+
+			String vrtName = VsiNames.tempMemName(".vrt");
+
+			try (RemoteTuning tuning = RemoteTuning.isRemote(filename) ? RemoteTuning.apply(options) : null) {
+
+				// parse the arguments before opening the file so a bad
+				//   argument cannot leak the open dataset
+
+				WarpOptions warpOpts = new WarpOptions(target.warpArguments());
+
+				try {
+
+					Dataset src = gdal.OpenEx(filename);
+
+					if (src == null)
+						throw new IllegalArgumentException("gdal cannot open "+filename);
+
+					try {
+
+						GdalCancellation cancellation = options.cancellation();
+
+						Dataset warped;
+
+						if (cancellation == null)
+							warped = gdal.Warp(vrtName, new Dataset[] {src}, warpOpts);
+						else
+							warped = gdal.Warp(vrtName, new Dataset[] {src}, warpOpts, cancellation.gdalCallback());
+
+						if (warped == null) {
+
+							if (cancellation != null)
+								cancellation.check(filename);
+
+							throw new IllegalArgumentException("gdal could not warp "+filename+": "+gdal.GetLastErrorMsg());
+						}
+
+						// closing the vrt writes its description into /vsimem/
+
+						warped.delete();
+
+					} finally {
+
+						src.delete();
+					}
+
+				} finally {
+
+					warpOpts.delete();
+				}
+
+				List<GdalSkippedData> skipped = new ArrayList<>();
+
+				GdalDatasetMetrics metrics = GdalDatasetMetrics.forCall(options, "warp of " + filename);
+
+				long t0 = (metrics == null) ? 0 : System.nanoTime();
+
+				DataBundle data = readDatasets(vrtName, options, skipped, metrics);
+
+				if (metrics != null) metrics.recordCall(System.nanoTime() - t0);
+
+				return new GdalReadResult(data, skipped, metrics);
+
+			} finally {
+
+				gdal.Unlink(vrtName);
+			}
+		});
+	}
+
+	/**
+	 * Read a series of raster files (such as daily time steps) into one
+	 * preallocated dataset. Every file must have the same band count, data
+	 * type and size. The result is (x, y, t) for single band files and
+	 * (x, y, band, t) otherwise, where t is the position of the file in the
+	 * list. Each file is read straight into its slice and up to maxConcurrent
+	 * files are read at once. Spatial coordinates come from the files'
+	 * shared geotransform; files on differing grids are rejected up front.
+	 * Masks are not read for stacks. A stack that a memory budget spills to
+	 * file backed storage is read one file at a time.
+	 *
+	 * @param filenames
+	 * @param options
+	 * @param maxConcurrent
+	 * @return A bundle holding the single stacked dataset
+	 */
+	public static
+
+		DataBundle
+
+			readTimeSeries(List<String> filenames, GdalReadOptions options, int maxConcurrent)
+	{
+		return limited(() -> {
+
+			if (filenames.size() == 0)
+				throw new IllegalArgumentException("no files to stack");
+
+			if (maxConcurrent < 1)
+				throw new IllegalArgumentException("concurrency limit must be at least 1");
+
+			StackShape shape = StackShape.probe(filenames);
+
+			int type = shape.type;
+
+			TypeReader<?> reader = TypeReaders.forType(type);
+
+			DataBundle outputs = new DataBundle();
+
+			if (options.calibrated() && calibratable(type)) {
+
+				if (calibratesToFloat32(type))
+					outputs.mergeFlt32(stackFiles(filenames, shape, G.FLT.construct(), 32, null, Gdal::float32Proc, options, maxConcurrent));
+				else
+					outputs.mergeFlt64(stackFiles(filenames, shape, G.DBL.construct(), 64, null, Gdal::float64Proc, options, maxConcurrent));
+			}
+			else if (reader != null) {
+
+				stackRaw(filenames, shape, reader, outputs, options, maxConcurrent);
+			}
+			else {
+
+				throw new IllegalArgumentException("cannot stack data of type "+gdal.GetDataTypeName(type));
+			}
+
+			return outputs;
+		});
+	}
+
+	private static <U extends Allocatable<U>> void
+
+		stackRaw(List<String> filenames, StackShape shape, TypeReader<U> reader, DataBundle outputs, GdalReadOptions options, int maxConcurrent)
+	{
+		reader.merge(outputs, stackFiles(filenames, shape, reader.construct(), reader.bits, reader, null, options, maxConcurrent));
+	}
+
+	// Fill one preallocated stack from many files in parallel. Exactly one
+	//   of the raw reader and the calibrated proc factory is non null. Each
+	//   worker gets its own value (and proc or PlaneView) and writes a
+	//   disjoint slice.
+
+	private static <U extends Allocatable<U>> DimensionedDataSource<U>
+
+		stackFiles(List<String> filenames, StackShape shape, U type, int bits,
+					TypeReader<U> reader,
+					Supplier<Procedure2<double[], U>> calibratedProcs,
+					GdalReadOptions options, int maxConcurrent)
+	{
+		int numFiles = filenames.size();
+
+		long[] dims;
+
+		if (shape.bands == 1) {
+
+			dims = new long[] {shape.xSize, shape.ySize, numFiles};
+		}
+		else {
+
+			dims = new long[] {shape.xSize, shape.ySize, shape.bands, numFiles};
+		}
+
+		// stacks are never downsampled; an over budget stack spills or fails
+
+		ReadContext stackCtx = new ReadContext(options, filenames.get(0));
+
+		DimensionedDataSource<U> data = stackCtx.allocate(type, dims, bits, "time series");
+
+		CoordinateSpace cspace = geoTransformSpace(shape.geoTransform, dims.length);
+
+		if (cspace != null) {
+
+			data.setCoordinateSpace(cspace);
+		}
+
+		data.setValueUnit(shape.unit);
+
+		recordCrs(data, shape.crs);
+
+		for (int t = 0; t < numFiles; t++) {
+
+			data.metadata().putString("time-"+t+"-filename", filenames.get(t));
+		}
+
+		List<Callable<Void>> tasks = new ArrayList<>();
+
+		for (int t = 0; t < numFiles; t++) {
+
+			final int timeStep = t;
+
+			final String filename = filenames.get(t);
+
+			tasks.add(() -> {
+
+				try (RemoteTuning tuning = RemoteTuning.isRemote(filename) ? RemoteTuning.apply(options) : null) {
+
+					Dataset ds = gdal.OpenEx(filename);
+
+					if (ds == null)
+						throw new IllegalArgumentException("gdal cannot open "+filename);
+
+					try {
+
+						ReadContext ctx = new ReadContext(options, filename);
+
+						U var = type.allocate();
+
+						long planeSize = ((long) shape.xSize) * shape.ySize;
+
+						PlaneView<U> planes = (reader == null) ? new PlaneView<>(data, 0, 1) : null;
+
+						Procedure2<double[], U> calibratedProc = (reader == null) ? calibratedProcs.get() : null;
+
+						for (int b = 0; b < shape.bands; b++) {
+
+							Band band = ds.GetRasterBand(b + 1);
+
+							if (reader != null) {
+
+								// planes are laid out (x, y) within band within time step
+
+								long planeBase = (((long) timeStep) * shape.bands + b) * planeSize;
+
+								transferBand(band, 0, shape.xSize, shape.ySize, data.rawData(), planeBase, reader, var, ctx, null);
+							}
+							else {
+
+								if (shape.bands == 1) {
+
+									planes.setPositionValue(0, timeStep);
+								}
+								else {
+
+									planes.setPositionValue(0, b);
+
+									planes.setPositionValue(1, timeStep);
+								}
+
+								transferCalibratedBand(band, 0, shape.xSize, shape.ySize, planes, var, calibratedProc, ctx, null);
+							}
+						}
+
+					} finally {
+
+						ds.delete();
+					}
+				}
+
+				return null;
+			});
+		}
+
+		// spilled (file backed) storage is not safe for concurrent writers
+
+		int workers = stackCtx.spilled() ? 1 : Math.min(maxConcurrent, numFiles);
+
+		ExecutorService pool = Executors.newFixedThreadPool(workers);
+
+		try {
+
+			// take results as they finish so the first failure is reported
+			//   at once; shutdownNow() then drops the files not yet started
+			//   and interrupts the ones being read
+
+			CompletionService<Void> results = new ExecutorCompletionService<>(pool);
+
+			for (Callable<Void> task : tasks) {
+
+				results.submit(task);
+			}
+
+			for (int i = 0; i < tasks.size(); i++) {
+
+				results.take().get();
+			}
+
+		} catch (InterruptedException e) {
+
+			stackCtx.releaseCharged(null);
+
+			Thread.currentThread().interrupt();
+
+			throw new IllegalArgumentException("interrupted while stacking files", e);
+
+		} catch (ExecutionException e) {
+
+			stackCtx.releaseCharged(null);
+
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+
+			throw new IllegalArgumentException("could not stack files", e.getCause());
+
+		} catch (RuntimeException | Error e) {
+
+			stackCtx.releaseCharged(null);
+
+			throw e;
+
+		} finally {
+
+			pool.shutdownNow();
+		}
+
+		return data;
+	}
+
+	// A coordinate space whose first two axes follow a north up gdal
+	//   geotransform (at sample centers) and whose other axes count planes.
+	//   Rows are never flipped so a north up image keeps its negative Y
+	//   scale. Returns null for missing, identity, rotated or sheared
+	//   geotransforms.
+
+	private static CoordinateSpace geoTransformSpace(double[] gt, int numD) {
+
+		if (gt == null || gt.length < 6 || gt[2] != 0 || gt[4] != 0)
+			return null;
+		
+		// gdal reports this transform for data that is not georeferenced
+		
+		if (gt[0] == 0 && gt[1] == 1 && gt[3] == 0 && gt[5] == 1)
+			return null;
+
+		BigDecimal[] scales = new BigDecimal[numD];
+
+		BigDecimal[] offsets = new BigDecimal[numD];
+
+		scales[0] = BigDecimal.valueOf(gt[1]);
+
+		offsets[0] = BigDecimal.valueOf(gt[0] + gt[1] / 2);
+
+		scales[1] = BigDecimal.valueOf(gt[5]);
+
+		offsets[1] = BigDecimal.valueOf(gt[3] + gt[5] / 2);
+
+		for (int d = 2; d < numD; d++) {
+
+			scales[d] = BigDecimal.ONE;
+
+			offsets[d] = BigDecimal.ZERO;
+		}
+
+		return new LinearNdCoordinateSpace(scales, offsets);
+	}
+
+	// The shape every file of a stack must share
+
+	private static class StackShape {
+
+		int bands;
+
+		int xSize;
+
+		int ySize;
+
+		int type;
+
+		double[] geoTransform;
+
+		String unit;
+
+		String[] crs;
+
+		static StackShape probe(List<String> filenames) {
+
+			StackShape shape = null;
+
+			for (String filename : filenames) {
+
+				Dataset ds = gdal.OpenEx(filename);
+
+				if (ds == null)
+					throw new IllegalArgumentException("gdal cannot open "+filename);
+
+				try {
+
+					if (ds.GetRasterCount() < 1)
+						throw new IllegalArgumentException(filename+" has no raster bands");
+
+					Band band = ds.GetRasterBand(1);
+
+					double[] gt = new double[6];
+
+					ds.GetGeoTransform(gt);
+
+					if (shape == null) {
+
+						shape = new StackShape();
+
+						shape.bands = ds.GetRasterCount();
+
+						shape.xSize = band.GetXSize();
+
+						shape.ySize = band.GetYSize();
+
+						shape.type = band.GetRasterDataType();
+
+						shape.geoTransform = gt;
+
+						shape.unit = band.GetUnitType();
+
+						shape.crs = crsOf(ds.GetSpatialRef());
+					}
+					else {
+
+						for (int b = 1; b <= ds.GetRasterCount(); b++) {
+
+							Band other = ds.GetRasterBand(b);
+
+							if (ds.GetRasterCount() != shape.bands ||
+									other.GetXSize() != shape.xSize ||
+									other.GetYSize() != shape.ySize ||
+									other.GetRasterDataType() != shape.type)
+							{
+								throw new IllegalArgumentException(filename+" does not match the band count, size or type of "+filenames.get(0));
+							}
+						}
+
+						for (int i = 0; i < 6; i++) {
+
+							double tolerance = 1e-9 * Math.max(1, Math.abs(shape.geoTransform[i]));
+
+							if (Math.abs(gt[i] - shape.geoTransform[i]) > tolerance)
+								throw new IllegalArgumentException(filename+" is not on the same grid as "+filenames.get(0));
+						}
+					}
+
+				} finally {
+
+					ds.delete();
+				}
+			}
+
+			return shape;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static GdalStructure probeStructure(String filename) {
+
+		List<String> subdatasets = new ArrayList<>();
+
+		List<GdalStructure.ArrayInfo> arrays = new ArrayList<>();
+
+		Dataset ds = gdal.OpenEx(filename, gdalconst.OF_MULTIDIM_RASTER);
+
+		try {
+
+			Group group = (ds == null) ? null : ds.GetRootGroup();
+
+			Vector<String> mdArrayNames = (group == null) ? new Vector<String>() : (Vector<String>) group.GetMDArrayNames();
+
+			if (mdArrayNames.size() > 0) {
+
+				for (String name : mdArrayNames) {
+
+					MDArray data = group.OpenMDArray(name);
+
+					long[] dims = new long[(int) data.GetDimensionCount()];
+
+					for (int k = 0; k < dims.length; k++) {
+
+						dims[k] = data.GetDimension(k).GetSize();
+					}
+
+					Double[] scale = new Double[1];
+
+					data.GetScale(scale);
+
+					Double[] offset = new Double[1];
+
+					data.GetOffset(offset);
+
+					arrays.add(new GdalStructure.ArrayInfo(name, dims,
+									data.GetDataType().GetNumericDataType(),
+									scale[0], offset[0], data.GetUnit()));
+				}
+			}
+			else {
+
+				if (ds != null)
+					ds.delete();
+
+				ds = gdal.OpenEx(filename);
+
+				if (ds == null)
+					throw new IllegalArgumentException("gdal cannot open "+filename);
+
+				Vector<String> subdatasetInfo = (Vector<String>) ds.GetMetadata_List("SUBDATASETS");
+
+				int counter = 1;
+
+				for (String entry : subdatasetInfo) {
+
+					String namePrefix = "SUBDATASET_" + counter + "_NAME=";
+
+					if (entry.startsWith(namePrefix)) {
+
+						subdatasets.add(entry.substring(namePrefix.length()));
+
+						counter++;
+					}
+				}
+
+				for (int i = 1; i <= ds.GetRasterCount(); i++) {
+
+					Band band = ds.GetRasterBand(i);
+
+					Double[] scale = new Double[1];
+
+					band.GetScale(scale);
+
+					Double[] offset = new Double[1];
+
+					band.GetOffset(offset);
+
+					arrays.add(new GdalStructure.ArrayInfo("band-"+i,
+									new long[] {band.GetXSize(), band.GetYSize()},
+									band.GetRasterDataType(),
+									scale[0], offset[0], band.GetUnitType()));
+				}
+			}
+
+		} finally {
+
+			if (ds != null)
+				ds.delete();
+		}
+
+		return new GdalStructure(filename, subdatasets, arrays);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static
+	
+		DataBundle
+	
+			readDatasets(String filename, GdalReadOptions options, List<GdalSkippedData> skipped, GdalDatasetMetrics metrics)
+	{
+		final DataBundle outputs = new DataBundle();
+		
+		final ReadContext ctx = new ReadContext(options, filename, skipped, metrics);
+		
+		long t0 = (ctx.metrics == null) ? 0 : System.nanoTime();
+		
+		Dataset ds = gdal.OpenEx(filename, gdalconst.OF_MULTIDIM_RASTER);
+		
+		if (ctx.metrics != null) ctx.metrics.recordOpen(System.nanoTime() - t0);
+
+		try {
+		
+			final Group group;
+		
+			if (ds == null) {
+			
+				group = null;
+			}
+			else {
+			
+				group = ds.GetRootGroup();
+			}
+
+			// let's deal with a multi dim dataset if we can
+		
+			Vector<String> mdArrayNames =  new Vector<String>();
+		
+			if (group != null) {
+			
+				//@SuppressWarnings("unchecked")
+				mdArrayNames = (Vector<String>) group.GetMDArrayNames();
+			}
+		
+			if (mdArrayNames.size() > 0) {
+			
+				List<MDArray> arrays = new ArrayList<>();
+			
+				for (int i = 0; i < mdArrayNames.size(); i++) {
+		
+					String name = mdArrayNames.get(i);
+				
+					MDArray data = group.OpenMDArray(name);
+				
+					long nDim = data.GetDimensionCount();
+				
+					if (nDim > Integer.MAX_VALUE) {
+					
+						throw new IllegalArgumentException("cannot handle this many dimensions!");
+					}
+
+					arrays.add(data);
+				}
+				
+				// fail before allocating anything if the file cannot fit
+				
+				if (ctx.failsOverBudget()) {
+					
+					long bytes = 0;
+					
+					for (MDArray data : arrays) {
+						
+						bytes += arrayBytes(data, data.GetDataType(), ctx);
+					}
+					
+					ctx.requireBudget(bytes);
+				}
+				
+				for (MDArray data : arrays) {
+					
+					readArray(data, outputs, ctx);
+				}
+			}
+			else {
+		
+				// old fashioned 1, 2, or 3 dim image
+	
+				if (ds != null)
+					ds.delete();
+			
+				t0 = (ctx.metrics == null) ? 0 : System.nanoTime();
+			
+				ds = gdal.OpenEx(filename);
+			
+				if (ctx.metrics != null) ctx.metrics.recordOpen(System.nanoTime() - t0);
+			
+				if (ds == null)
+					throw new IllegalArgumentException("gdal cannot open "+filename);
+			
+				Vector<String> subdatasetInfo = (Vector<String>) ds.GetMetadata_List("SUBDATASETS");
+			
+				int counter = 1;
+			
+				for (String entry : subdatasetInfo) {
+			
+					String namePrefix = "SUBDATASET_" + counter + "_NAME=";
+				
+					if (entry.startsWith(namePrefix)) {
+				
+						String[] pair = entry.split("=");
+					
+						if (pair.length != 2)
+							throw new IllegalArgumentException("gdal metadata: too many equal signs in internal filename");
+					
+						// subdatasets are recorded as part of the call that found them
+						
+						DataBundle lowerbundle = readDatasets(pair[1], options, ctx.skipped, ctx.metrics);
+					
+						outputs.mergeAll(lowerbundle);
+					
+						counter++;
+					}
+				}
+	
+				// bands of differing types or sizes are read as separate datasets
+			
+				List<int[]> groups = bandGroups(ds);
+				
+				// fail before allocating anything if the file cannot fit
+				
+				if (ctx.failsOverBudget()) {
+					
+					long bytes = 0;
+					
+					for (int[] bands : groups) {
+						
+						bytes += bandGroupBytes(ds, bands, ctx);
+					}
+					
+					ctx.requireBudget(bytes);
+				}
+			
+				for (int[] bands : groups) {
+				
+					readBandGroup(ds, bands, outputs, ctx);
+				}
+			}
+		
+		} catch (RuntimeException | Error e) {
+			
+			// give back what this read charged to the memory budget now
+			//   rather than when its partial datasets are collected
+			
+			ctx.releaseCharged(outputs);
+			
+			throw e;
+			
+		} finally {
+			
+			if (ds != null)
+				ds.delete();
+		}
+
+		return outputs;
+	}
+	
+	// read one multidim array into the bundle based upon its data type
+	
+	private static void readArray(MDArray data, DataBundle outputs, ReadContext ctx) {
+		
+		ctx.checkCancelled();
+		
+		ExtendedDataType dataType = data.GetDataType();
+		
+		if (dataType.GetClass() == gdalconst.GEDTC_COMPOUND) {
+			
+			// read each field of a compound array as an array of its own
+			
+			for (EDTComponent field : dataType.GetComponents()) {
+				
+				MDArray view = data.GetView("['" + field.GetName() + "']");
+				
+				if (view == null)
+					ctx.skip(data.GetFullName() + "." + field.GetName(), field.GetType().GetName(), "gdal could not make a view of the field");
+				else
+					readArray(view, outputs, ctx);
+			}
+			
+			return;
+		}
+		
+		if (dataType.GetClass() == gdalconst.GEDTC_STRING) {
+			
+			ctx.skip(data.GetFullName(), "String", "string valued data has no zorbage type");
+			
+			return;
+		}
+		
+		int type = dataType.GetNumericDataType();
+		
+		TypeReader<?> reader = TypeReaders.forType(type);
+		
+		boolean calibrated = ctx.options.calibrated() && calibratable(type);
+		
+		if (!calibrated && reader == null) {
+		
+			ctx.skip(data.GetFullName(), gdal.GetDataTypeName(type), "no zorbage type for this gdal data type");
+			
+			return;
+		}
+		
+		int bits = datasetBits(type, reader, ctx);
+		
+		data = fittingArray(data, bits, ctx);
+		
+		if (calibrated) {
+			
+			if (calibratesToFloat32(type))
+				outputs.mergeFlt32(readCalibratedMDArrayData(data, G.FLT.construct(), 32, float32Proc(), ctx));
+			else
+				outputs.mergeFlt64(readCalibratedMDArrayData(data, G.DBL.construct(), 64, float64Proc(), ctx));
+		}
+		else {
+			
+			readArrayAs(data, reader, outputs, ctx);
+		}
+	}
+	
+	private static <U extends Allocatable<U>> void readArrayAs(MDArray data, TypeReader<U> reader, DataBundle outputs, ReadContext ctx) {
+		
+		reader.merge(outputs, readMDArrayData(data, reader.construct(), reader.bits, new ReaderBuffer<U>(reader), ctx));
+	}
+	
+	// The bits per element of the dataset data of a gdal type is read into
+	//   or 0 when it is skipped
+	
+	private static int datasetBits(int type, TypeReader<?> reader, ReadContext ctx) {
+		
+		if (ctx.options.calibrated() && calibratable(type))
+			return calibratesToFloat32(type) ? 32 : 64;
+		
+		return (reader == null) ? 0 : reader.bits;
+	}
+	
+	// The bytes readArray() allocates for an array at full resolution.
+	//   Compound arrays need the bytes of each of their numeric fields.
+	
+	private static long arrayBytes(MDArray data, ExtendedDataType dataType, ReadContext ctx) {
+		
+		if (dataType.GetClass() == gdalconst.GEDTC_COMPOUND) {
+			
+			long bytes = 0;
+			
+			for (EDTComponent field : dataType.GetComponents()) {
+				
+				bytes += arrayBytes(data, field.GetType(), ctx);
+			}
+			
+			return bytes;
+		}
+		
+		if (dataType.GetClass() == gdalconst.GEDTC_STRING)
+			return 0;
+		
+		int type = dataType.GetNumericDataType();
+		
+		long[] dims = new long[(int) data.GetDimensionCount()];
+		
+		for (int k = 0; k < dims.length; k++) {
+			
+			dims[k] = data.GetDimension(k).GetSize();
+		}
+		
+		return ReadContext.bytesFor(dims, datasetBits(type, TypeReaders.forType(type), ctx));
+	}
+	
+	// The array itself unless the memory budget asks for downsampling. Then
+	//   a view of it whose two fastest varying axes are decimated by the
+	//   smallest factor that fits the budget.
+	
+	private static MDArray fittingArray(MDArray data, int bits, ReadContext ctx) {
+		
+		int numDims = (int) data.GetDimensionCount();
+		
+		long[] dims = new long[numDims];
+		
+		for (int k = 0; k < numDims; k++) {
+			
+			dims[k] = data.GetDimension(k).GetSize();
+		}
+		
+		if (!ctx.mustDownsample(ReadContext.bytesFor(dims, bits)))
+			return data;
+		
+		if (numDims >= 2) {
+			
+			long[] smaller = dims.clone();
+			
+			for (long factor = 2; smaller[numDims-1] > 1 || smaller[numDims-2] > 1; factor++) {
+				
+				smaller[numDims-1] = (dims[numDims-1] + factor - 1) / factor;
+				
+				smaller[numDims-2] = (dims[numDims-2] + factor - 1) / factor;
+				
+				if (ctx.fits(ReadContext.bytesFor(smaller, bits))) {
+					
+					MDArray view = data.GetView("[...,::" + factor + ",::" + factor + "]");
+					
+					if (view == null)
+						throw new IllegalArgumentException("gdal could not downsample "+data.GetFullName()+": "+gdal.GetLastErrorMsg());
+					
+					return view;
+				}
+			}
+		}
+		
+		throw new IllegalArgumentException(data.GetFullName()+" of "+ctx.filename+" does not fit the memory budget even when downsampled");
+	}
+	
+	// The scale and offset of an axis whose coordinates are held in a 1-d
+	//   indexing variable. Returns null when there is no variable or when
+	//   its values are not evenly spaced (a linear space cannot hold them).
+	
+	private static double[] axisCoordinates(MDArray coords, long size) {
+		
+		if (coords == null || coords.GetDimensionCount() != 1 || size < 1 || size > Integer.MAX_VALUE)
+			return null;
+		
+		if (coords.GetDimension(0).GetSize() != size)
+			return null;
+		
+		double[] values = new double[(int) size];
+		
+		if (!coords.Read(new long[] {0}, new long[] {size}, values))
+			return null;
+		
+		if (size == 1)
+			return new double[] {1.0, values[0]};
+		
+		double step = (values[values.length - 1] - values[0]) / (size - 1);
+		
+		double tolerance = 1e-6 * Math.abs(step);
+		
+		for (int i = 1; i < values.length - 1; i++) {
+			
+			if (Math.abs(values[i] - (values[0] + i * step)) > tolerance)
+				return null;
+		}
+		
+		return new double[] {step, values[0]};
+	}
+	
+	// The WKT and EPSG code (either may be null) of a spatial reference
+	
+	private static String[] crsOf(SpatialReference srs) {
+		
+		if (srs == null)
+			return new String[] {null, null};
+		
+		String wkt = srs.ExportToWkt();
+		
+		String epsg = null;
+		
+		if ("EPSG".equalsIgnoreCase(srs.GetAuthorityName(null)))
+			epsg = srs.GetAuthorityCode(null);
+		
+		return new String[] {wkt, epsg};
+	}
+	
+	private static void recordCrs(DimensionedDataSource<?> data, String[] crs) {
+		
+		if (crs[0] != null && crs[0].length() > 0)
+			data.metadata().putString("crs-wkt", crs[0]);
+		
+		if (crs[1] != null && crs[1].length() > 0)
+			data.metadata().putString("crs-epsg", crs[1]);
+	}
+	
+	// The zorbage axis each gdal axis of a multidim array becomes: the
+	//   reverse of gdal's order unless native order was requested.
+	
+	private static int[] zorbageAxes(int numDims, boolean nativeOrder) {
+		
+		int[] axes = new int[numDims];
+		
+		for (int k = 0; k < numDims; k++) {
+			
+			axes[k] = nativeOrder ? k : numDims - 1 - k;
+		}
+		
+		return axes;
+	}
+	
+	// Build the coordinate space of a multidim array from the scale and
+	//   offset of each gdal axis. A flipped Y axis (gdal axis numDims-2)
+	//   runs backwards so it gets a negated scale and its offset moves to
+	//   the coordinate of the last gdal row.
+	
+	private static LinearNdCoordinateSpace mdArraySpace(double[] scales, double[] offsets, long[] gdalDims, int[] zorbAxes, boolean flipY) {
+		
+		int numDims = gdalDims.length;
+		
+		BigDecimal[] bdScales = new BigDecimal[numDims];
+		
+		BigDecimal[] bdOffsets = new BigDecimal[numDims];
+		
+		for (int k = 0; k < numDims; k++) {
+			
+			double scale = scales[k];
+			
+			double offset = offsets[k];
+			
+			if (flipY && k == numDims - 2) {
+				
+				offset = offset + scale * (gdalDims[k] - 1);
+				
+				scale = -scale;
+			}
+			
+			bdScales[zorbAxes[k]] = BigDecimal.valueOf(scale);
+			
+			bdOffsets[zorbAxes[k]] = BigDecimal.valueOf(offset);
+		}
+		
+		return new LinearNdCoordinateSpace(bdScales, bdOffsets);
+	}
+	
+	// Group bands by data type and resolution. Each group can be read in
+	//   one pass into its own DimensionedDataSource.
+	
+	private static List<int[]> bandGroups(Dataset ds) {
+		
+		Map<String, List<Integer>> groups = new LinkedHashMap<>();
+		
+		for (int i = 1; i <= ds.GetRasterCount(); i++) {
+			
+			Band band = ds.GetRasterBand(i);
+			
+			String key = band.GetRasterDataType() + ":" + band.GetXSize() + ":" + band.GetYSize();
+			
+			List<Integer> bandNums = groups.get(key);
+			
+			if (bandNums == null) {
+				
+				bandNums = new ArrayList<>();
+				
+				groups.put(key, bandNums);
+			}
+			
+			bandNums.add(i);
+		}
+		
+		List<int[]> result = new ArrayList<>();
+		
+		for (List<Integer> bandNums : groups.values()) {
+			
+			int[] bands = new int[bandNums.size()];
+			
+			for (int i = 0; i < bands.length; i++) {
+				
+				bands[i] = bandNums.get(i);
+			}
+			
+			result.add(bands);
+		}
+		
+		return result;
+	}
+	
+	// bands must all share one data type and one resolution
+	
+	private static void readBandGroup(Dataset ds, int[] bands, DataBundle outputs, ReadContext ctx) {
+		
+		ctx.checkCancelled();
+		
+		int type = ds.GetRasterBand(bands[0]).GetRasterDataType();
+		
+		TypeReader<?> reader = TypeReaders.forBands(ds, bands);
+		
+		boolean calibrated = ctx.options.calibrated() && calibratable(type);
+		
+		if (!calibrated && reader == null) {
+			
+			ctx.skip(bandGroupName(bands), gdal.GetDataTypeName(type), "no zorbage type for this gdal data type");
+			
+			return;
+		}
+		
+		int bits = datasetBits(type, reader, ctx);
+		
+		int level = bandGroupLevel(ds, bands, bits, ctx);
+		
+		MaskReader masks = MaskReader.create(ds, bands, level, ctx);
+		
+		if (calibrated) {
+			
+			if (calibratesToFloat32(type))
+				outputs.mergeFlt32(readCalibratedBandedData(ds, bands, level, G.FLT.construct(), 32, float32Proc(), ctx, masks));
+			else
+				outputs.mergeFlt64(readCalibratedBandedData(ds, bands, level, G.DBL.construct(), 64, float64Proc(), ctx, masks));
+		}
+		else {
+			
+			readBandGroupAs(ds, bands, level, reader, outputs, ctx, masks);
+		}
+		
+		if (masks != null) {
+			
+			outputs.mergeUInt8(masks.masks());
+		}
+	}
+	
+	private static String bandGroupName(int[] bands) {
+		
+		StringBuilder name = new StringBuilder("band-");
+		
+		for (int i = 0; i < bands.length; i++) {
+			
+			if (i > 0) name.append(',');
+			
+			name.append(bands[i]);
+		}
+		
+		return name.toString();
+	}
+	
+	// The bytes readBandGroup() allocates for a band group (and its masks)
+	//   at full resolution
+	
+	private static long bandGroupBytes(Dataset ds, int[] bands, ReadContext ctx) {
+		
+		Band first = ds.GetRasterBand(bands[0]);
+		
+		int bits = datasetBits(first.GetRasterDataType(), TypeReaders.forBands(ds, bands), ctx);
+		
+		if (bits == 0)
+			return 0;
+		
+		long bytes = ReadContext.bytesFor(new long[] {first.GetXSize(), first.GetYSize(), bands.length}, bits);
+		
+		long[] maskDims = MaskReader.maskDims(ds, bands, 0, ctx);
+		
+		if (maskDims != null)
+			bytes += ReadContext.bytesFor(maskDims, 8);
+		
+		return bytes;
+	}
+	
+	// The resolution level a band group is read at: 0 (full resolution)
+	//   unless the memory budget asks for downsampling. Then it is the level
+	//   (gdal overview + 1) of the largest overview every band has that
+	//   fits the budget.
+	
+	private static int bandGroupLevel(Dataset ds, int[] bands, int bits, ReadContext ctx) {
+		
+		Band first = ds.GetRasterBand(bands[0]);
+		
+		long bytes = ReadContext.bytesFor(new long[] {first.GetXSize(), first.GetYSize(), bands.length}, bits);
+		
+		if (!ctx.mustDownsample(bytes))
+			return 0;
+		
+		int bestLevel = 0;
+		
+		long bestSize = 0;
+		
+		for (int i = 0; i < first.GetOverviewCount(); i++) {
 			
-				data.setValueUnit(band.GetUnitType());
+			boolean everyBand = true;
 			
-				BigDecimal[] scales = new BigDecimal[numD];
+			for (int b : bands) {
 				
-				BigDecimal[] offsets = new BigDecimal[numD];
-				
-				Double[] scls = new Double[numD];
+				if (ds.GetRasterBand(b).GetOverviewCount() <= i)
+					everyBand = false;
+			}
+			
+			Band overview = first.GetOverview(i);
+			
+			if (!everyBand || overview == null)
+				continue;
+			
+			long size = ((long) overview.GetXSize()) * overview.GetYSize();
+			
+			long overviewBytes = ReadContext.bytesFor(new long[] {overview.GetXSize(), overview.GetYSize(), bands.length}, bits);
+			
+			if (ctx.fits(overviewBytes) && size > bestSize) {
 				
-				Double[] offs = new Double[numD];
+				bestLevel = i + 1;
 				
-				band.GetScale(scls);
+				bestSize = size;
+			}
+		}
+		
+		if (bestLevel == 0)
+			throw new IllegalArgumentException(bandGroupName(bands)+" of "+ctx.filename+" does not fit the memory budget and has no overview that does");
+		
+		return bestLevel;
+	}
+	
+	// the band whose pixels are read at a resolution level
+	
+	private static Band pixelBand(Band band, int level) {
+		
+		return (level == 0) ? band : band.GetOverview(level - 1);
+	}
+	
+	// A dataset's geotransform adjusted to the size of one of its overviews
+	
+	private static double[] geoTransformAt(Dataset ds, int fullX, int fullY, int xSize, int ySize) {
+		
+		double[] gt = ds.GetGeoTransform();
+		
+		if (gt == null || gt.length < 6 || (xSize == fullX && ySize == fullY))
+			return gt;
+		
+		double fx = ((double) fullX) / xSize;
+		
+		double fy = ((double) fullY) / ySize;
+		
+		return new double[] {gt[0], gt[1] * fx, gt[2] * fy, gt[3], gt[4] * fx, gt[5] * fy};
+	}
+	
+	private static <U extends Allocatable<U>> void
+	
+		readBandGroupAs(Dataset ds, int[] bands, int level, TypeReader<U> reader, DataBundle outputs, ReadContext ctx, MaskReader masks)
+	{
+		reader.merge(outputs, readBandedData(ds, bands, level, reader, ctx, masks));
+	}
+	
+	private static <U extends Allocatable<U>> DimensionedDataSource<U>
+	
+		readBandedData(Dataset ds, int[] bands, int level, TypeReader<U> reader, ReadContext ctx, MaskReader masks)
+	{
+		U var = reader.construct();
+		
+		int numPlanes = bands.length;
+		
+		Band first = ds.GetRasterBand(bands[0]);
+		
+		int xSize = pixelBand(first, level).GetXSize();
+		
+		int ySize = pixelBand(first, level).GetYSize();
+		
+		long[] dims;
+		
+		if (numPlanes == 1) {
+		
+			dims = new long[] {xSize, ySize};
+		}
+		else {
+			
+			dims = new long[] {xSize, ySize, numPlanes};
+		}
+		
+		DimensionedDataSource<U> data = ctx.allocate(var, dims, reader.bits, bandGroupName(bands));
+		
+		IndexedDataSource<U> raw = data.rawData();
+		
+		int numD = data.numDimensions();
+		
+		for (int i = 0; i < numPlanes; i++) {
+			
+			Band band = ds.GetRasterBand(bands[i]);
+			
+			if (i == 0) {
+			
+				data.setValueUnit(band.GetUnitType());
 				
-				band.GetOffset(offs);
+				CoordinateSpace cspace = geoTransformSpace(geoTransformAt(ds, first.GetXSize(), first.GetYSize(), xSize, ySize), numD);
 				
-				boolean definitionsOkay = true;
+				if (cspace != null) {
+					
+					data.setCoordinateSpace(cspace);
+				}
 				
-				for (int d = 0; d < numD; d++) {
+				recordCrs(data, crsOf(ds.GetSpatialRef()));
 				
-					if (scls[d] == null) definitionsOkay = false;
+				if (level > 0) {
 					
-					if (offs[d] == null) definitionsOkay = false;
+					data.metadata().putString("overview-level", Integer.toString(level - 1));
 				}
+			}
+			
+			recordBandMetadata(data, i, band, ctx);
+			
+			if (masks != null) {
 				
-				if (definitionsOkay) {
+				masks.startPlane(band, level, i);
+			}
+			
+			transferBand(band, level, xSize, ySize, raw, ((long) i) * xSize * ySize, reader, var, ctx, masks);
+		}
+		
+		return data;
+	}
+	
+	// Copy one band, at a resolution level, into the plane of raw storage
+	//   that starts at planeBase, one block aligned strip at a time. Each
+	//   strip is copied by the reader's own loop.
+	
+	private static <U extends Allocatable<U>> void
+	
+		transferBand(Band band, int level, int xSize, int ySize, IndexedDataSource<U> raw, long planeBase, TypeReader<U> reader, U var, ReadContext ctx, MaskReader masks)
+	{
+		Band pixels = pixelBand(band, level);
+		
+		long rowBytes = ((long) xSize) * gdal.GetDataTypeSize(band.GetRasterDataType()) / 8;
+		
+		int stripRows = stripRows(pixels, xSize, ySize);
+		
+		// one strip buffer is reused for every strip that is not cached;
+		//   it is only allocated once a strip actually needs it
+		
+		Object buffer = null;
+		
+		for (int y0 = 0; y0 < ySize; y0 += stripRows) {
+			
+			ctx.checkCancelled();
+			
+			int rows = Math.min(stripRows, ySize - y0);
+			
+			GdalTileCache.Key key = ctx.tileKey("band-" + band.GetBand(), level, y0, rows);
+			
+			Object strip = ctx.cachedTile(key);
+			
+			if (strip == null) {
 				
-					for (int d = 0; d < numD; d++) {
+				if (key != null) {
+					
+					// the cache will own this array
+					
+					strip = reader.allocate(rows * xSize);
+					
+					if (ctx.metrics != null) ctx.metrics.recordBufferAllocation();
+				}
+				else {
 					
-						scales[d] = BigDecimal.valueOf(scls[d]);
+					if (buffer == null) {
 						
-						offsets[d] = BigDecimal.valueOf(offs[d]);
+						buffer = reader.allocate(stripRows * xSize);
+						
+						if (ctx.metrics != null) ctx.metrics.recordBufferAllocation();
 					}
 					
-					CoordinateSpace cspace = new LinearNdCoordinateSpace(scales, offsets);
+					strip = buffer;
+				}
+				
+				if (ctx.options.remoteOptimized()) {
 					
-					data.setCoordinateSpace(cspace);
+					pixels.AdviseRead(0, y0, xSize, rows);
 				}
+				
+				long t0 = (ctx.metrics == null) ? 0 : System.nanoTime();
+				
+				reader.readRaster(pixels, y0, rows, xSize, strip);
+				
+				if (ctx.metrics != null) ctx.metrics.recordNativeRead(System.nanoTime() - t0, rowBytes * rows);
+				
+				ctx.cacheTile(key, strip);
 			}
 			
-			data.metadata().putString("band-"+i+"-description", band.GetDescription());
+			if (masks != null) {
+				
+				masks.readStrip(y0, rows);
+			}
+			
+			long t1 = (ctx.metrics == null) ? 0 : System.nanoTime();
+			
+			reader.transfer(strip, rows * xSize, raw, planeBase + ((long) y0) * xSize, 1, var);
+			
+			if (ctx.metrics != null) ctx.metrics.recordConversion(System.nanoTime() - t1, ((long) xSize) * rows);
+			
+			ctx.progress("band-" + band.GetBand(), ((long) xSize) * (y0 + rows), ((long) xSize) * ySize);
+		}
+	}
+	
+	// Read all the bands of a dataset as doubles and apply the band's value
+	//   scale, offset, and nodata value while transferring values. gdal does
+	//   the conversion of raw values to doubles during the ReadRaster() call.
+	
+	private static <U extends Allocatable<U>> DimensionedDataSource<U>
+	
+		readCalibratedBandedData(Dataset ds, int[] bands, int level, U var, int bits, Procedure2<double[], U> proc, ReadContext ctx, MaskReader masks)
+	{
+		int numPlanes = bands.length;
+		
+		Band first = ds.GetRasterBand(bands[0]);
+		
+		int xSize = pixelBand(first, level).GetXSize();
+		
+		int ySize = pixelBand(first, level).GetYSize();
+		
+		long[] dims;
+		
+		if (numPlanes == 1) {
+		
+			dims = new long[] {xSize, ySize};
+		}
+		else {
 			
-			data.metadata().putString("band-"+i+"-units", band.GetUnitType());
+			dims = new long[] {xSize, ySize, numPlanes};
+		}
+		
+		DimensionedDataSource<U> data = ctx.allocate(var, dims, bits, bandGroupName(bands));
+		
+		PlaneView<U> planes = new PlaneView<>(data, 0, 1);
+		
+		for (int i = 0; i < numPlanes; i++) {
 			
-			@SuppressWarnings("unchecked")
-			Hashtable<String,String> table = (Hashtable<String,String>) band.GetMetadata_Dict();
+			Band band = ds.GetRasterBand(bands[i]);
 			
-			for (String key : table.keySet()) {
+			if (i == 0) {
 			
-				String value = table.get(key);
+				data.setValueUnit(band.GetUnitType());
 				
-				if (key != null && key.length() > 0) {
+				CoordinateSpace cspace = geoTransformSpace(geoTransformAt(ds, first.GetXSize(), first.GetYSize(), xSize, ySize), data.numDimensions());
 				
-					if (value != null && value.length() > 0) {
+				if (cspace != null) {
 					
-						data.metadata().putString("band-"+i+"-"+key, value);
-					}
+					data.setCoordinateSpace(cspace);
+				}
+				
+				recordCrs(data, crsOf(ds.GetSpatialRef()));
+				
+				if (level > 0) {
+					
+					data.metadata().putString("overview-level", Integer.toString(level - 1));
 				}
 			}
-
+			
+			recordBandMetadata(data, i, band, ctx);
+			
 			if (data.numDimensions() > 2) {
 
 				planes.setPositionValue(0, i);
 			}
 			
-			for (int y = 0; y < ds.GetRasterYSize(); y++) {
-		
-				BandBuffer bandBuf = new BandBuffer(band, y, ds.getRasterXSize());
-				
-				for (int x = 0; x < ds.GetRasterXSize(); x++) {
+			if (masks != null) {
 				
-					proc.call(bandBuf, var);
-					
-					planes.set(x, y, var);
-				}				
+				masks.startPlane(band, level, i);
 			}
+			
+			transferCalibratedBand(band, level, xSize, ySize, planes, var, proc, ctx, masks);
 		}
 		
 		return data;
 	}
-
-	private static interface Buffer<U> {
-		
-		void readData(MDArray data, long[] gdalIdx, long[] gdalShape);
-		void getVal(int i, U val);
-	}
 	
-	private static class ByteBuffer<U extends SetFromBytes>
-		implements Buffer<U>
+	// Copy one band, calibrated and at a resolution level, into the plane
+	//   the PlaneView is positioned at, one block aligned strip at a time.
+	
+	private static <U extends Allocatable<U>> void
+	
+		transferCalibratedBand(Band band, int level, int xSize, int ySize, PlaneView<U> planes, U var, Procedure2<double[], U> proc, ReadContext ctx, MaskReader masks)
 	{
-		byte[] buffer;
-		byte[] miniBuff;
-		int currIndex;
-		int numComponents;
+		Band pixels = pixelBand(band, level);
 		
-		ByteBuffer(int numComponents) {
-			
-			this.numComponents = numComponents;
-			this.miniBuff = new byte[numComponents];
-			this.buffer = new byte[MAXCOLS * numComponents];
-			this.currIndex = -1;
-		}
+		double[] value = new double[1];
 		
-		@Override
-		public void readData(MDArray data, long[] gdalIdx, long[] gdalShape) {
+		Double[] tmp = new Double[1];
+		
+		band.GetScale(tmp);
+		
+		double scale = (tmp[0] == null) ? 1.0 : tmp[0];
+		
+		tmp[0] = null;
+		
+		band.GetOffset(tmp);
+		
+		double offset = (tmp[0] == null) ? 0.0 : tmp[0];
+		
+		tmp[0] = null;
+		
+		band.GetNoDataValue(tmp);
+		
+		boolean hasNoData = (tmp[0] != null);
+		
+		double noData = hasNoData ? tmp[0] : Double.NaN;
+		
+		int stripRows = stripRows(pixels, xSize, ySize);
+		
+		// allocated once the first uncached strip needs it
+		
+		double[] strip = null;
+		
+		for (int y0 = 0; y0 < ySize; y0 += stripRows) {
 			
-			data.Read(gdalIdx, gdalShape, buffer);
+			ctx.checkCancelled();
 			
-			currIndex = 0;
-		}
-
-		@Override
-		public void getVal(int i, U val) {
+			int rows = Math.min(stripRows, ySize - y0);
+			
+			GdalTileCache.Key key = ctx.tileKey("band-" + band.GetBand() + "-float64", level, y0, rows);
+			
+			double[] values = (double[]) ctx.cachedTile(key);
+			
+			if (values == null) {
+				
+				if (key != null) {
+					
+					// the cache will own this array
+					
+					values = new double[rows * xSize];
+					
+					if (ctx.metrics != null) ctx.metrics.recordBufferAllocation();
+				}
+				else {
+					
+					if (strip == null) {
+						
+						strip = new double[stripRows * xSize];
+						
+						if (ctx.metrics != null) ctx.metrics.recordBufferAllocation();
+					}
+					
+					values = strip;
+				}
+				
+				if (ctx.options.remoteOptimized()) {
+					
+					pixels.AdviseRead(0, y0, xSize, rows);
+				}
+				
+				long t0 = (ctx.metrics == null) ? 0 : System.nanoTime();
+				
+				pixels.ReadRaster(0, y0, xSize, rows, xSize, rows, gdalconst.GDT_Float64, values, 0, 0);
+				
+				if (ctx.metrics != null) ctx.metrics.recordNativeRead(System.nanoTime() - t0, 8L * xSize * rows);
+				
+				ctx.cacheTile(key, values);
+			}
 			
-			for (int k = 0; k < numComponents; k++) {
-				miniBuff[k] = buffer[numComponents*currIndex + k];
+			if (masks != null) {
+				
+				masks.readStrip(y0, rows);
+			}
+			
+			long t1 = (ctx.metrics == null) ? 0 : System.nanoTime();
+			
+			int p = 0;
+			
+			for (int y = y0; y < y0 + rows; y++) {
+			
+				for (int x = 0; x < xSize; x++) {
+					
+					value[0] = calibrate(values[p++], scale, offset, hasNoData, noData);
+					
+					proc.call(value, var);
+					
+					planes.set(x, y, var);
+				}
 			}
-
-			val.setFromBytes(miniBuff);
 			
-			currIndex++;
+			if (ctx.metrics != null) ctx.metrics.recordConversion(System.nanoTime() - t1, ((long) xSize) * rows);
+			
+			ctx.progress("band-" + band.GetBand(), ((long) xSize) * (y0 + rows), ((long) xSize) * ySize);
 		}
-		
 	}
 	
-	private static class ShortBuffer<U extends SetFromShorts>
-		implements Buffer<U>
-	{
-		short[] buffer;
-		short[] miniBuff;
-		int currIndex;
-		int numComponents;
+	// Choose how many rows a banded reader fetches per ReadRaster() call.
+	//   Strips are aligned to the band's natural block height so each
+	//   native read decodes whole blocks (and, for remote files, lets gdal
+	//   merge adjacent byte ranges). Strip sizes are capped at MAXSTRIPELEMS
+	//   elements.
+	
+	private static int stripRows(Band band, int xSize, int ySize) {
 		
-		ShortBuffer(int numComponents) {
-			
-			this.numComponents = numComponents;
-			this.miniBuff = new short[numComponents];
-			this.buffer = new short[MAXCOLS * numComponents];
-			this.currIndex = -1;
-		}
+		int blockRows = Math.max(1, band.GetBlockYSize());
 		
-		@Override
-		public void readData(MDArray data, long[] gdalIdx, long[] gdalShape) {
-			
-			data.Read(gdalIdx, gdalShape, buffer);
+		int maxRows = Math.max(1, MAXSTRIPELEMS / Math.max(1, xSize));
+		
+		int rows;
+		
+		if (blockRows > maxRows) {
 			
-			currIndex = 0;
+			rows = maxRows;
 		}
-
-		@Override
-		public void getVal(int i, U val) {
+		else {
 			
-			for (int k = 0; k < numComponents; k++) {
-				miniBuff[k] = buffer[numComponents*currIndex + k];
+			rows = (maxRows / blockRows) * blockRows;
+		}
+		
+		return Math.min(rows, Math.max(1, ySize));
+	}
+	
+	private static double calibrate(double raw, double scale, double offset, boolean hasNoData, double noData) {
+		
+		if (hasNoData && (raw == noData || (Double.isNaN(noData) && Double.isNaN(raw))))
+			return Double.NaN;
+		
+		return raw * scale + offset;
+	}
+	
+	// The band's number, description and units go into the string
+	//   metadata. Its other metadata items are kept only in its typed
+	//   attribute table (see GdalMetadata.attributes()).
+	
+	private static void recordBandMetadata(DimensionedDataSource<?> data, int i, Band band, ReadContext ctx) {
+		
+		data.metadata().putString("band-"+i+"-number", Integer.toString(band.GetBand()));
+		
+		data.metadata().putString("band-"+i+"-description", band.GetDescription());
+		
+		data.metadata().putString("band-"+i+"-units", band.GetUnitType());
+		
+		// temporary files are gone once the read ends so read all their
+		//   metadata domains now
+		
+		GdalAttributes attributes = GdalAttributes.ofBand(ctx.filename, band, VsiNames.isTemporary(ctx.filename));
+		
+		GdalMetadata.attach(data, attributes);
+	}
+	
+	private static boolean calibratable(int type) {
+		
+		return type == gdalconst.GDT_Byte ||
+				type == gdalconst.GDT_Int8 ||
+				type == gdalconst.GDT_UInt16 ||
+				type == gdalconst.GDT_Int16 ||
+				type == gdalconst.GDT_UInt32 ||
+				type == gdalconst.GDT_Int32 ||
+				type == gdalconst.GDT_UInt64 ||
+				type == gdalconst.GDT_Int64 ||
+				type == gdalconst.GDT_Float32 ||
+				type == gdalconst.GDT_Float64 ||
+				TypeReaders.isFloat16(type);
+	}
+	
+	// types whose scaled values fit well within a float's precision
+	
+	private static boolean calibratesToFloat32(int type) {
+		
+		return type == gdalconst.GDT_Byte ||
+				type == gdalconst.GDT_Int8 ||
+				type == gdalconst.GDT_UInt16 ||
+				type == gdalconst.GDT_Int16 ||
+				type == gdalconst.GDT_Float32 ||
+				TypeReaders.isFloat16(type);
+	}
+	
+	private static Procedure2<double[], Float32Member> float32Proc() {
+		
+		return new Procedure2<double[], Float32Member>()
+		{
+			@Override
+			public void call(double[] value, Float32Member outVal) {
+				
+				outVal.setV((float) value[0]);
+			}
+		};
+	}
+	
+	private static Procedure2<double[], Float64Member> float64Proc() {
+		
+		return new Procedure2<double[], Float64Member>()
+		{
+			@Override
+			public void call(double[] value, Float64Member outVal) {
+				
+				outVal.setV(value[0]);
 			}
+		};
+	}
 
-			val.setFromShorts(miniBuff);
-			
-			currIndex++;
-		}
+	// A chunk buffer of the multidim reader. It reads chunks of an array
+	//   and copies a whole chunk (its own or a cached one) into storage.
+	
+	private static interface Buffer<U> {
 		
+		void readData(MDArray data, long[] gdalIdx, long[] gdalShape);
+		Object contents();
+		void transfer(Object values, int count, IndexedDataSource<U> raw, long base, long stride, U val);
 	}
 	
-	private static class IntBuffer<U extends SetFromInts>
+	// reads raw values through the type's reader
+	
+	private static class ReaderBuffer<U extends Allocatable<U>>
 		implements Buffer<U>
 	{
-		int[] buffer;
-		int[] miniBuff;
-		int currIndex;
-		int numComponents;
+		TypeReader<U> reader;
+		Object buffer;
 		
-		IntBuffer(int numComponents) {
+		ReaderBuffer(TypeReader<U> reader) {
 			
-			this.numComponents = numComponents;
-			this.miniBuff = new int[numComponents];
-			this.buffer = new int[MAXCOLS * numComponents];
-			this.currIndex = -1;
+			this.reader = reader;
+			this.buffer = reader.allocate(MAXCOLS);
 		}
 		
 		@Override
 		public void readData(MDArray data, long[] gdalIdx, long[] gdalShape) {
 			
-			data.Read(gdalIdx, gdalShape, buffer);
-			
-			currIndex = 0;
+			reader.readArray(data, gdalIdx, gdalShape, buffer);
 		}
-
+		
 		@Override
-		public void getVal(int i, U val) {
-			
-			for (int k = 0; k < numComponents; k++) {
-				miniBuff[k] = buffer[numComponents*currIndex + k];
-			}
-
-			val.setFromInts(miniBuff);
+		public Object contents() {
 			
-			currIndex++;
+			return buffer;
 		}
 		
+		@Override
+		public void transfer(Object values, int count, IndexedDataSource<U> raw, long base, long stride, U val) {
+			
+			reader.transfer(values, count, raw, base, stride, val);
+		}
 	}
 	
-	private static class LongBuffer<U extends SetFromLongs>
+	private static class CalibratedBuffer<U>
 		implements Buffer<U>
 	{
-		long[] buffer;
-		long[] miniBuff;
-		int currIndex;
-		int numComponents;
-		
-		LongBuffer(int numComponents) {
-			
-			this.numComponents = numComponents;
-			this.miniBuff = new long[numComponents];
-			this.buffer = new long[MAXCOLS * numComponents];
-			this.currIndex = -1;
-		}
+		double[] buffer;
+		double[] value;
+		double scale;
+		double offset;
+		boolean hasNoData;
+		double noData;
+		Procedure2<double[], U> proc;
 		
-		@Override
-		public void readData(MDArray data, long[] gdalIdx, long[] gdalShape) {
+		CalibratedBuffer(MDArray data, Procedure2<double[], U> proc) {
 			
-			data.Read(gdalIdx, gdalShape, buffer);
+			this.buffer = new double[MAXCOLS];
+			this.value = new double[1];
+			this.proc = proc;
 			
-			currIndex = 0;
-		}
-
-		@Override
-		public void getVal(int i, U val) {
+			Double[] tmp = new Double[1];
 			
-			for (int k = 0; k < numComponents; k++) {
-				miniBuff[k] = buffer[numComponents*currIndex + k];
-			}
-
-			val.setFromLongs(miniBuff);
+			data.GetScale(tmp);
+			this.scale = (tmp[0] == null) ? 1.0 : tmp[0];
 			
-			currIndex++;
-		}
-		
-	}
-	
-	private static class FloatBuffer<U extends SetFromFloats>
-		implements Buffer<U>
-	{
-		float[] buffer;
-		float[] miniBuff;
-		int currIndex;
-		int numComponents;
-		
-		FloatBuffer(int numComponents) {
+			tmp[0] = null;
+			data.GetOffset(tmp);
+			this.offset = (tmp[0] == null) ? 0.0 : tmp[0];
 			
-			this.numComponents = numComponents;
-			this.miniBuff = new float[numComponents];
-			this.buffer = new float[MAXCOLS * numComponents];
-			this.currIndex = -1;
+			tmp[0] = null;
+			data.GetNoDataValueAsDouble(tmp);
+			this.hasNoData = (tmp[0] != null);
+			this.noData = hasNoData ? tmp[0] : Double.NaN;
 		}
 		
 		@Override
 		public void readData(MDArray data, long[] gdalIdx, long[] gdalShape) {
 			
 			data.Read(gdalIdx, gdalShape, buffer);
-			
-			currIndex = 0;
 		}
 
 		@Override
-		public void getVal(int i, U val) {
-			
-			for (int k = 0; k < numComponents; k++) {
-				miniBuff[k] = buffer[numComponents*currIndex + k];
-			}
-
-			val.setFromFloats(miniBuff);
-			
-			currIndex++;
-		}
-		
-	}
-	
-	private static class DoubleBuffer<U extends SetFromDoubles>
-		implements Buffer<U>
-	{
-		double[] buffer;
-		double[] miniBuff;
-		int currIndex;
-		int numComponents;
-		
-		DoubleBuffer(int numComponents) {
+		public Object contents() {
 			
-			this.numComponents = numComponents;
-			this.miniBuff = new double[numComponents];
-			this.buffer = new double[MAXCOLS * numComponents];
-			this.currIndex = -1;
+			return buffer;
 		}
 		
 		@Override
-		public void readData(MDArray data, long[] gdalIdx, long[] gdalShape) {
-			
-			data.Read(gdalIdx, gdalShape, buffer);
+		public void transfer(Object values, int count, IndexedDataSource<U> raw, long base, long stride, U val) {
 			
-			currIndex = 0;
-		}
-
-		@Override
-		public void getVal(int i, U val) {
+			double[] v = (double[]) values;
 			
-			for (int k = 0; k < numComponents; k++) {
-				miniBuff[k] = buffer[numComponents*currIndex + k];
+			for (int i = 0; i < count; i++) {
+				
+				value[0] = calibrate(v[i], scale, offset, hasNoData, noData);
+				
+				proc.call(value, val);
+				
+				raw.set(base + i * stride, val);
 			}
-
-			val.setFromDoubles(miniBuff);
-			
-			currIndex++;
 		}
-		
 	}
 	
-	private static <T extends Algebra<T,U>, U extends Allocatable<U>>
+	private static <U extends Allocatable<U>>
 	
 		DimensionedDataSource<U>
 	
-			readMDArrayData(MDArray data, U type, Buffer<U> buffer)
+			readMDArrayData(MDArray data, U type, int bits, Buffer<U> buffer, ReadContext ctx)
 	{
 		long nd = data.GetDimensionCount();
 		
@@ -814,6 +2396,12 @@ public class Gdal {
 		
 		int numDims = (int) nd;
 		
+		boolean flipY = (numDims > 1) && !ctx.options.nativeOrientation();
+		
+		// zorbAxes[k] is the zorbage axis that gdal axis k becomes
+		
+		int[] zorbAxes = zorbageAxes(numDims, ctx.options.nativeAxisOrder());
+		
 		long[] gdalDims = new long[numDims];
 		
 		long[] zorbDims = new long[numDims];
@@ -822,7 +2410,7 @@ public class Gdal {
 		
 			gdalDims[i] = data.GetDimension(i).GetSize();
 			
-			zorbDims[numDims - 1 - i] = gdalDims[i];
+			zorbDims[zorbAxes[i]] = gdalDims[i];
 		}
 		
 		long maxX = gdalDims[numDims-1];
@@ -833,710 +2421,389 @@ public class Gdal {
 
 		U val = type.allocate();
 		
-		DimensionedDataSource<U> output =
-				
-				DimensionedStorage.allocate(type, zorbDims);
-
-		long[] gdalIdx = new long[numDims];
-		
-		IntegerIndex zorbIdx = new IntegerIndex(numDims);
+		long elemBytes = data.GetDataType().GetSize();
 		
-		long[] colDims = new long[numDims - 1];
+		// the caller allocated the chunk buffer for this array
 		
-		for (int i = 0; i < colDims.length; i++) {
-	    	 
-			colDims[i] = gdalDims[i];
-		}
-	    
-		IntegerIndex colIdx = new IntegerIndex(numDims - 1);
-
-		long[] gdalShape = new long[numDims];
+		if (ctx.metrics != null) ctx.metrics.recordBufferAllocation();
 		
-		for (int i = 0; i < numDims; i++) {
-
-			gdalShape[i] = 1;
-		}
-
-		SamplingIterator<IntegerIndex> iter = new SamplingCartesianIntegerGrid(colDims).iterator();
-	    
-		while (iter.hasNext()) {
-			
-			iter.next(colIdx);
-
-			for (int i = 0; i < colIdx.numDimensions(); i++) {
+		DimensionedDataSource<U> output =
 				
-				gdalIdx[i] = colIdx.get(i);
-			}
+				ctx.allocate(type, zorbDims, bits, data.GetFullName());
 
-			long left = 0;
+		long[] gdalIdx = new long[numDims];
 		
-			while (left < maxX) {
-				
-				long chunkSize = MAXCOLS;
-				
-				if (left + chunkSize > maxX) {
-				
-					chunkSize = maxX - left;
-				}
-				
-				gdalIdx[numDims-1] = left;
-
-				gdalShape[numDims-1] = chunkSize;
-				
-				buffer.readData(data, gdalIdx, gdalShape);
-				
-				for (int i = 0; i < chunkSize; i++) {
-					
-					gdalIdx[numDims-1] = left + i;
-					
-					buffer.getVal(i, val);
-					
-					for (int k = 0; k < numDims; k++) {
-
-						// is this the Y dim?
-						
-						if (k == numDims - 2) {
-						
-							// flip it
-							zorbIdx.set(numDims - 1 - k, maxY - 1 - gdalIdx[k]);
-						}
-						else {  // don't flip it
-							
-							zorbIdx.set(numDims - 1 - k, gdalIdx[k]); 
-						}
-					}
-				
-					output.set(zorbIdx, val);
-				}
-	
-				left += chunkSize;
-			}
-		}
+		IndexedDataSource<U> raw = output.rawData();
 		
-		output.setName(data.GetName());
-		output.setSource(data.GetFullName());
-		output.setValueUnit(data.GetUnit());
-		output.setValueType("unknown type");
-
-		Double[] scales = new Double[numDims];
-		Double[] offsets = new Double[numDims];
+		// zorbage axis 0 varies fastest in storage. Find the storage stride
+		//   of each gdal axis. With reversed axes (the default) each chunk
+		//   read along the last gdal axis is one contiguous run.
 		
-		data.GetScale(scales);
-		data.GetOffset(offsets);
+		long[] zorbStrides = new long[numDims];
 		
-		BigDecimal[] bdScales = new BigDecimal[numDims];
-		BigDecimal[] bdOffsets = new BigDecimal[numDims];
-
-		for (int i = 0; i < numDims; i++) {
+		long stride = 1;
+		
+		for (int d = 0; d < numDims; d++) {
 			
-			Double scale = scales[i];
-			Double offset = offsets[i];
+			zorbStrides[d] = stride;
 			
-			if (scale == null)
-				bdScales[numDims - 1 - i] = BigDecimal.ONE;
-			else
-				bdScales[numDims - 1 - i] = BigDecimal.valueOf(scale);
-
-			if (offset == null)
-				bdOffsets[numDims - 1 - i] = BigDecimal.ZERO;
-			else
-				bdOffsets[numDims - 1 - i] = BigDecimal.valueOf(offset);
+			stride *= zorbDims[d];
 		}
 		
-		LinearNdCoordinateSpace space = new LinearNdCoordinateSpace(bdScales, bdOffsets);
-
-		output.setCoordinateSpace(space);
-		
-		// TODO set more MetaData based upon gdal attributes?????
-		
-		return output;
-	}
-
-	private static DimensionedDataSource<UnsignedInt8Member>
-	
-		readMDArrayUByteData(MDArray data, UnsignedInt8Member type)
-	{
-		ByteBuffer<UnsignedInt8Member> buffer =
-				new ByteBuffer<UnsignedInt8Member>(1);
-		
-		return readMDArrayData(data, type, buffer);
-	}
-
-	private static DimensionedDataSource<SignedInt8Member>
-	
-		readMDArrayByteData(MDArray data, SignedInt8Member type)
-	{
-		ByteBuffer<SignedInt8Member> buffer =
-				new ByteBuffer<SignedInt8Member>(1);
-		
-		return readMDArrayData(data, type, buffer);
-	}
-
-	private static DimensionedDataSource<UnsignedInt16Member>
-	
-		readMDArrayUShortData(MDArray data, UnsignedInt16Member type)
-	{
-		ShortBuffer<UnsignedInt16Member> buffer =
-				new ShortBuffer<UnsignedInt16Member>(1);
-		
-		return readMDArrayData(data, type, buffer);
-	}
-
-	private static DimensionedDataSource<SignedInt16Member>
-	
-		readMDArrayShortData(MDArray data, SignedInt16Member type)
-	{
-		ShortBuffer<SignedInt16Member> buffer =
-				new ShortBuffer<SignedInt16Member>(1);
-		
-		return readMDArrayData(data, type, buffer);
-	}
-
-	private static DimensionedDataSource<UnsignedInt32Member>
-	
-		readMDArrayUIntData(MDArray data, UnsignedInt32Member type)
-	{
-		IntBuffer<UnsignedInt32Member> buffer =
-				new IntBuffer<UnsignedInt32Member>(1);
-		
-		return readMDArrayData(data, type, buffer);
-	}
-
-	private static DimensionedDataSource<SignedInt32Member>
-	
-		readMDArrayIntData(MDArray data, SignedInt32Member type)
-	{
-		IntBuffer<SignedInt32Member> buffer =
-				new IntBuffer<SignedInt32Member>(1);
-		
-		return readMDArrayData(data, type, buffer);
-	}
-
-	private static DimensionedDataSource<UnsignedInt64Member>
-	
-		readMDArrayULongData(MDArray data, UnsignedInt64Member type)
-	{
-		LongBuffer<UnsignedInt64Member> buffer =
-				new LongBuffer<UnsignedInt64Member>(1);
-		
-		return readMDArrayData(data, type, buffer);
-	}
-
-	private static DimensionedDataSource<SignedInt64Member>
-	
-		readMDArrayLongData(MDArray data, SignedInt64Member type)
-	{
-		LongBuffer<SignedInt64Member> buffer =
-				new LongBuffer<SignedInt64Member>(1);
-		
-		return readMDArrayData(data, type, buffer);
-	}
-
-	private static DimensionedDataSource<Float32Member>
-	
-		readMDArrayFloatData(MDArray data, Float32Member type)
-	{
-		FloatBuffer<Float32Member> buffer =
-				new FloatBuffer<Float32Member>(1);
-		
-		return readMDArrayData(data, type, buffer);
-	}
-
-	private static DimensionedDataSource<Float64Member>
-	
-		readMDArrayDoubleData(MDArray data, Float64Member type)
-	{
-		DoubleBuffer<Float64Member> buffer =
-				new DoubleBuffer<Float64Member>(1);
-		
-		return readMDArrayData(data, type, buffer);
-	}
-
-	private static DimensionedDataSource<ComplexFloat32Member>
-	
-		readMDArrayComplexFloatData(MDArray data, ComplexFloat32Member type)
-	{
-		FloatBuffer<ComplexFloat32Member> buffer =
-				new FloatBuffer<ComplexFloat32Member>(2);
-		
-		return readMDArrayData(data, type, buffer);
-	}
-
-	private static DimensionedDataSource<ComplexFloat64Member>
-	
-		readMDArrayComplexDoubleData(MDArray data, ComplexFloat64Member type)
-	{
-		DoubleBuffer<ComplexFloat64Member> buffer =
-				new DoubleBuffer<ComplexFloat64Member>(2);
-		
-		return readMDArrayData(data, type, buffer);
-	}
-
-	private static DimensionedDataSource<GaussianInt16Member>
-	
-		readMDArrayGaussianShortData(MDArray data, GaussianInt16Member type)
-	{
-		ShortBuffer<GaussianInt16Member> buffer =
-				new ShortBuffer<GaussianInt16Member>(2);
-		
-		return readMDArrayData(data, type, buffer);
-	}
-
-	private static DimensionedDataSource<GaussianInt32Member>
-	
-		readMDArrayGaussianIntData(MDArray data, GaussianInt32Member type)
-	{
-		IntBuffer<GaussianInt32Member> buffer =
-				new IntBuffer<GaussianInt32Member>(2);
+		long[] strides = new long[numDims];
 		
-		return readMDArrayData(data, type, buffer);
-	}
-
-	private static DimensionedDataSource<UnsignedInt8Member>
-	
-		readBandedUByteData(Dataset ds, UnsignedInt8Member var)
-	{
-		Procedure2<BandBuffer,UnsignedInt8Member> proc =
-				new Procedure2<BandBuffer, UnsignedInt8Member>()
-		{
-			private byte[] buffer = new byte[1];
+		for (int k = 0; k < numDims; k++) {
 			
-			@Override
-			public void call(BandBuffer bandBuf, UnsignedInt8Member outVal) {
-	
-				bandBuf.getElemBytes(buffer);
-				
-				outVal.setV(buffer[0]);
-			}
-		};
+			strides[k] = zorbStrides[zorbAxes[k]];
+		}
 		
-		return readBandedData(ds, var, proc);
-	}
-
-	private static DimensionedDataSource<SignedInt8Member>
-	
-		readBandedByteData(Dataset ds, SignedInt8Member var)
-	{
-		Procedure2<BandBuffer,SignedInt8Member> proc =
-				new Procedure2<BandBuffer, SignedInt8Member>()
-		{
-			private byte[] buffer = new byte[1];
-			
-			@Override
-			public void call(BandBuffer bandBuf, SignedInt8Member outVal) {
+		long xStride = strides[numDims - 1];
 		
-				bandBuf.getElemBytes(buffer);
-				
-				outVal.setV(buffer[0]);
-			}
-		};
+		long[] colDims = new long[numDims - 1];
 		
-		return readBandedData(ds, var, proc);
-	}
+		for (int i = 0; i < colDims.length; i++) {
+	    	 
+			colDims[i] = gdalDims[i];
+		}
+	    
+		IntegerIndex colIdx = new IntegerIndex(numDims - 1);
 
-	private static DimensionedDataSource<UnsignedInt16Member>
-	
-		readBandedUShortData(Dataset ds, UnsignedInt16Member var)
-	{
-		Procedure2<BandBuffer,UnsignedInt16Member> proc =
-				new Procedure2<BandBuffer, UnsignedInt16Member>()
-		{
-			private short[] buffer = new short[1];
-			
-			@Override
-			public void call(BandBuffer bandBuf, UnsignedInt16Member outVal) {
+		long[] gdalShape = new long[numDims];
 		
-				bandBuf.getElemShorts(buffer);
-				
-				outVal.setV(buffer[0]);
-			}
-		};
+		for (int i = 0; i < numDims; i++) {
 
-		return readBandedData(ds, var, proc);
-	}
+			gdalShape[i] = 1;
+		}
 
-	private static DimensionedDataSource<SignedInt16Member>
-	
-		readBandedShortData(Dataset ds, SignedInt16Member var)
-	{
-		Procedure2<BandBuffer,SignedInt16Member> proc =
-				new Procedure2<BandBuffer, SignedInt16Member>()
-		{
-			private short[] buffer = new short[1];
-			
-			@Override
-			public void call(BandBuffer bandBuf, SignedInt16Member outVal) {
+		String cacheName = data.GetFullName() + "-" + buffer.getClass().getSimpleName();
 		
-				bandBuf.getElemShorts(buffer);
-				
-				outVal.setV(buffer[0]);
-			}
-		};
+		long totalElems = 1;
 		
-		return readBandedData(ds, var, proc);
-	}
-
-	private static DimensionedDataSource<UnsignedInt32Member>
-	
-		readBandedUIntData(Dataset ds, UnsignedInt32Member var)
-	{
-		Procedure2<BandBuffer,UnsignedInt32Member> proc =
-				new Procedure2<BandBuffer, UnsignedInt32Member>()
-		{
-			private int[] buffer = new int[1];
+		for (int i = 0; i < numDims; i++) {
 			
-			@Override
-			public void call(BandBuffer bandBuf, UnsignedInt32Member outVal) {
+			totalElems *= gdalDims[i];
+		}
 		
-				bandBuf.getElemInts(buffer);
-				
-				outVal.setV(buffer[0]);
-			}
-		};
+		long rowNum = -1;
 		
-		return readBandedData(ds, var, proc);
-	}
+		SamplingIterator<IntegerIndex> iter = new SamplingCartesianIntegerGrid(colDims).iterator();
+	    
+		while (iter.hasNext()) {
+			
+			iter.next(colIdx);
+			
+			rowNum++;
 
-	private static DimensionedDataSource<SignedInt32Member>
-	
-		readBandedIntData(Dataset ds, SignedInt32Member var)
-	{
-		Procedure2<BandBuffer,SignedInt32Member> proc =
-				new Procedure2<BandBuffer, SignedInt32Member>()
-		{
-			private int[] buffer = new int[1];
+			long rowBase = 0;
 			
-			@Override
-			public void call(BandBuffer bandBuf, SignedInt32Member outVal) {
-		
-				bandBuf.getElemInts(buffer);
+			for (int i = 0; i < colIdx.numDimensions(); i++) {
+				
+				gdalIdx[i] = colIdx.get(i);
+				
+				// flip the Y dim if desired
 				
-				outVal.setV(buffer[0]);
+				long pos = (flipY && i == numDims - 2) ? (maxY - 1 - gdalIdx[i]) : gdalIdx[i];
+				
+				rowBase += pos * strides[i];
 			}
-		};
-		
-		return readBandedData(ds, var, proc);
-	}
 
-	private static DimensionedDataSource<UnsignedInt64Member>
-	
-		readBandedUIntData(Dataset ds, UnsignedInt64Member var)
-	{
-		Procedure2<BandBuffer,UnsignedInt64Member> proc =
-				new Procedure2<BandBuffer, UnsignedInt64Member>()
-		{
-			private long[] buffer = new long[1];
-			
-			@Override
-			public void call(BandBuffer bandBuf, UnsignedInt64Member outVal) {
+			long left = 0;
 		
-				bandBuf.getElemLongs(buffer);
+			while (left < maxX) {
 				
-				outVal.setV(buffer[0]);
-			}
-		};
-		
-		return readBandedData(ds, var, proc);
-	}
+				ctx.checkCancelled();
+				
+				long chunkSize = MAXCOLS;
+				
+				if (left + chunkSize > maxX) {
+				
+					chunkSize = maxX - left;
+				}
+				
+				gdalIdx[numDims-1] = left;
 
-	private static DimensionedDataSource<SignedInt64Member>
+				gdalShape[numDims-1] = chunkSize;
+				
+				GdalTileCache.Key key = ctx.tileKey(cacheName, rowNum * maxX + left, chunkSize);
+				
+				Object values = ctx.cachedTile(key);
+				
+				if (values == null) {
+					
+					long t0 = (ctx.metrics == null) ? 0 : System.nanoTime();
+					
+					buffer.readData(data, gdalIdx, gdalShape);
+					
+					if (ctx.metrics != null) ctx.metrics.recordNativeRead(System.nanoTime() - t0, chunkSize * elemBytes);
+					
+					if (key != null) {
+						
+						Object contents = buffer.contents();
+						
+						Object copy = Array.newInstance(contents.getClass().getComponentType(), Array.getLength(contents));
+						
+						System.arraycopy(contents, 0, copy, 0, Array.getLength(contents));
+						
+						if (ctx.metrics != null) ctx.metrics.recordBufferAllocation();
+						
+						ctx.cacheTile(key, copy);
+					}
+					
+					values = buffer.contents();
+				}
+				
+				long t1 = (ctx.metrics == null) ? 0 : System.nanoTime();
+				
+				buffer.transfer(values, (int) chunkSize, raw, rowBase + left * xStride, xStride, val);
+				
+				if (ctx.metrics != null) ctx.metrics.recordConversion(System.nanoTime() - t1, chunkSize);
 	
-		readBandedIntData(Dataset ds, SignedInt64Member var)
-	{
-		Procedure2<BandBuffer,SignedInt64Member> proc =
-				new Procedure2<BandBuffer, SignedInt64Member>()
-		{
-			private long[] buffer = new long[1];
+				left += chunkSize;
+			}
 			
-			@Override
-			public void call(BandBuffer bandBuf, SignedInt64Member outVal) {
+			ctx.progress(data.GetFullName(), (rowNum + 1) * maxX, totalElems);
+		}
+		
+		output.setName(data.GetName());
+		output.setSource(data.GetFullName());
+		output.setValueUnit(data.GetUnit());
+		output.setValueType("unknown type");
+
+		// axis coordinates come from each dimension's indexing variable
+		
+		double[] scales = new double[numDims];
+		double[] offsets = new double[numDims];
 		
-				bandBuf.getElemLongs(buffer);
+		for (int k = 0; k < numDims; k++) {
+			
+			Dimension dim = data.GetDimension(k);
+			
+			MDArray coords = dim.GetIndexingVariable();
+			
+			double[] axis = axisCoordinates(coords, gdalDims[k]);
+			
+			scales[k] = (axis == null) ? 1.0 : axis[0];
+			offsets[k] = (axis == null) ? 0.0 : axis[1];
+			
+			if (dim.GetName() != null) {
 				
-				outVal.setV(buffer[0]);
+				output.setAxisType(zorbAxes[k], dim.GetName());
 			}
-		};
-		
-		return readBandedData(ds, var, proc);
-	}
-
-	private static DimensionedDataSource<Float32Member>
-	
-		readBandedFloatData(Dataset ds, Float32Member var)
-	{
-		Procedure2<BandBuffer,Float32Member> proc =
-				new Procedure2<BandBuffer, Float32Member>()
-		{
-			private float[] buffer = new float[1];
 			
-			@Override
-			public void call(BandBuffer bandBuf, Float32Member outVal) {
-		
-				bandBuf.getElemFloats(buffer);
+			if (coords != null && coords.GetUnit() != null && coords.GetUnit().length() > 0) {
 				
-				outVal.setV(buffer[0]);
+				output.setAxisUnit(zorbAxes[k], coords.GetUnit());
 			}
-		};
+		}
 		
-		return readBandedData(ds, var, proc);
-	}
-
-	private static DimensionedDataSource<Float64Member>
-	
-		readBandedDoubleData(Dataset ds, Float64Member var)
-	{
-		Procedure2<BandBuffer,Float64Member> proc =
-				new Procedure2<BandBuffer, Float64Member>()
-		{
-			private double[] buffer = new double[1];
-
-			@Override
-			public void call(BandBuffer bandBuf, Float64Member outVal) {
+		output.setCoordinateSpace(mdArraySpace(scales, offsets, gdalDims, zorbAxes, flipY));
 		
-				bandBuf.getElemDoubles(buffer);
-				
-				outVal.setV(buffer[0]);
-			}
-		};
+		recordCrs(output, crsOf(data.GetSpatialRef()));
 		
-		return readBandedData(ds, var, proc);
-	}
-
-	private static DimensionedDataSource<GaussianInt16Member>
-	
-		readBandedGaussianShortData(Dataset ds, GaussianInt16Member var)
-	{
-		Procedure2<BandBuffer,GaussianInt16Member> proc =
-				new Procedure2<BandBuffer, GaussianInt16Member>()
-		{
-			private short[] buffer = new short[2];
-
-			@Override
-			public void call(BandBuffer bandBuf, GaussianInt16Member outVal) {
+		GdalAttributes attributes = GdalAttributes.ofArray(ctx.filename, data);
 		
-				bandBuf.getElemShorts(buffer);
-				
-				outVal.setR((int) buffer[0]);
-				
-				outVal.setI((int) buffer[1]);
-			}
-		};
+		GdalMetadata.attach(output, attributes);
 		
-		return readBandedData(ds, var, proc);
+		return output;
 	}
 
-	private static DimensionedDataSource<GaussianInt32Member>
+	private static <U extends Allocatable<U>> DimensionedDataSource<U>
 	
-		readBandedGaussianIntData(Dataset ds, GaussianInt32Member var)
+		readCalibratedMDArrayData(MDArray data, U type, int bits, Procedure2<double[], U> proc, ReadContext ctx)
 	{
-		Procedure2<BandBuffer,GaussianInt32Member> proc =
-				new Procedure2<BandBuffer, GaussianInt32Member>()
-		{
-			private int[] buffer = new int[2];
-
-			@Override
-			public void call(BandBuffer bandBuf, GaussianInt32Member outVal) {
+		CalibratedBuffer<U> buffer = new CalibratedBuffer<U>(data, proc);
 		
-				bandBuf.getElemInts(buffer);
-				
-				outVal.setR(buffer[0]);
-				
-				outVal.setI(buffer[1]);
-			}
-		};
+		DimensionedDataSource<U> output = readMDArrayData(data, type, bits, buffer, ctx);
 		
-		return readBandedData(ds, var, proc);
+		output.setValueType("calibrated");
+		
+		return output;
 	}
 
-	private static DimensionedDataSource<ComplexFloat32Member>
+	// Reads the gdal mask band of each band in a group row by row right
+	//   alongside the data reads. Mask values are 0 for invalid pixels and
+	//   255 for valid ones. When every band shares one per-dataset mask only
+	//   a single 2-d mask is read.
 	
-		readBandedComplexFloatData(Dataset ds, ComplexFloat32Member var)
-	{
-		Procedure2<BandBuffer,ComplexFloat32Member> proc =
-				new Procedure2<BandBuffer, ComplexFloat32Member>()
-		{
-			private float[] buffer = new float[2];
-
-			@Override
-			public void call(BandBuffer bandBuf, ComplexFloat32Member outVal) {
+	private static class MaskReader {
 		
-				bandBuf.getElemFloats(buffer);
-				
-				outVal.setR(buffer[0]);
-				
-				outVal.setI(buffer[1]);
-			}
-		};
+		private final DimensionedDataSource<UnsignedInt8Member> masks;
 		
-		return readBandedData(ds, var, proc);
-	}
-
-	private static DimensionedDataSource<ComplexFloat64Member>
-	
-		readBandedComplexDoubleData(Dataset ds, ComplexFloat64Member var)
-	{
-		Procedure2<BandBuffer,ComplexFloat64Member> proc =
-				new Procedure2<BandBuffer, ComplexFloat64Member>()
-		{
-			private double[] buffer = new double[2];
-
-			@Override
-			public void call(BandBuffer bandBuf, ComplexFloat64Member outVal) {
+		private final PlaneView<UnsignedInt8Member> planes;
 		
-				bandBuf.getElemDoubles(buffer);
-				
-				outVal.setR(buffer[0]);
-				
-				outVal.setI(buffer[1]);
-			}
-		};
+		private final boolean perDataset;
 		
-		return readBandedData(ds, var, proc);
-	}
-	
-	
-	private static class BandBuffer {
+		private final UnsignedInt8Member val;
+		
+		private final int xSize;
+		
+		private final ReadContext ctx;
+		
+		private byte[] strip;
+		
+		private Band maskBand;
 		
-		private Object arr;
+		private String component;
 		
-		private int readPtr;
+		private int level;
 		
-		BandBuffer(Band band, int row, int elemsPerRow) {
+		static MaskReader create(Dataset ds, int[] bands, int level, ReadContext ctx) {
 			
-			this.readPtr = 0;
+			long[] dims = maskDims(ds, bands, level, ctx);
 			
-			int type = band.getDataType();
+			if (dims == null)
+				return null;
 			
-			if (type == gdalconst.GDT_Byte) {
+			Band first = pixelBand(ds.GetRasterBand(bands[0]), level);
+			
+			// a group of several bands has 2-d masks only when they share one
+			
+			boolean perDataset = (bands.length == 1) ?
+					(ds.GetRasterBand(bands[0]).GetMaskFlags() & gdalconst.GMF_PER_DATASET) != 0 :
+					dims.length == 2;
+			
+			String group = bandGroupName(bands);
+			
+			DimensionedDataSource<UnsignedInt8Member> masks = ctx.allocate(G.UINT8.construct(), dims, 8, "mask of "+group);
+			
+			return new MaskReader(masks, group, perDataset, first.GetMaskFlags(), ctx);
+		}
 		
-				arr = new byte[elemsPerRow * 1];
-				
-				band.ReadRaster(0, row, elemsPerRow, 1, elemsPerRow, 1, band.getDataType(), (byte[])arr, 0, 0);
-			}
-			else if (type == gdalconst.GDT_UInt16) {
-				
-				arr = new short[elemsPerRow * 1];
-				
-				band.ReadRaster(0, row, elemsPerRow, 1, elemsPerRow, 1, band.getDataType(), (short[])arr, 0, 0);
-			}
-			else if (type == gdalconst.GDT_Int16) {
-				
-				arr = new short[elemsPerRow * 1];
-				
-				band.ReadRaster(0, row, elemsPerRow, 1, elemsPerRow, 1, band.getDataType(), (short[])arr, 0, 0);
-			}
-			else if (type == gdalconst.GDT_UInt32) {
-				
-				arr = new int[elemsPerRow * 1];
-				
-				band.ReadRaster(0, row, elemsPerRow, 1, elemsPerRow, 1, band.getDataType(), (int[])arr, 0, 0);
-			}
-			else if (type == gdalconst.GDT_Int32) {
-				
-				arr = new int[elemsPerRow * 1];
-				
-				band.ReadRaster(0, row, elemsPerRow, 1, elemsPerRow, 1, band.getDataType(), (int[])arr, 0, 0);
-			}
-			else if (type == gdalconst.GDT_UInt64) {
-				
-				arr = new long[elemsPerRow * 1];
-
-				band.ReadRaster(0, row, elemsPerRow, 1, elemsPerRow, 1, band.getDataType(), (long[])arr, 0, 0);
-			}
-			else if (type == gdalconst.GDT_Int64) {
-				
-				arr = new long[elemsPerRow * 1];
-
-				band.ReadRaster(0, row, elemsPerRow, 1, elemsPerRow, 1, band.getDataType(), (long[])arr, 0, 0);
-			}
-			else if (type == gdalconst.GDT_Float32) {
-				
-				arr = new float[elemsPerRow * 1];
-				
-				band.ReadRaster(0, row, elemsPerRow, 1, elemsPerRow, 1, band.getDataType(), (float[])arr, 0, 0);
-			}
-			else if (type == gdalconst.GDT_Float64) {
-				
-				arr = new double[elemsPerRow * 1];
-				
-				band.ReadRaster(0, row, elemsPerRow, 1, elemsPerRow, 1, band.getDataType(), (double[])arr, 0, 0);
-			}
-			else if (type == gdalconst.GDT_CInt16) {
-				
-				arr = new short[elemsPerRow * 2];
-				
-				band.ReadRaster(0, row, elemsPerRow, 1, elemsPerRow, 1, band.getDataType(), (short[])arr, 0, 0);
-			}
-			else if (type == gdalconst.GDT_CInt32) {
-				
-				arr = new int[elemsPerRow * 2];
-				
-				band.ReadRaster(0, row, elemsPerRow, 1, elemsPerRow, 1, band.getDataType(), (int[])arr, 0, 0);
-			}
-			else if (type == gdalconst.GDT_CFloat32) {
-				
-				arr = new float[elemsPerRow * 2];
-				
-				band.ReadRaster(0, row, elemsPerRow, 1, elemsPerRow, 1, band.getDataType(), (float[])arr, 0, 0);
-			}
-			else if (type == gdalconst.GDT_CFloat64) {
+		// The dimensions of the masks of a band group at a resolution level
+		//   or null when no masks are read
+		
+		static long[] maskDims(Dataset ds, int[] bands, int level, ReadContext ctx) {
+			
+			if (!ctx.options.readMasks())
+				return null;
+			
+			boolean allValid = true;
+			
+			boolean perDataset = true;
+			
+			for (int i = 0; i < bands.length; i++) {
 				
-				arr = new double[elemsPerRow * 2];
+				int flags = ds.GetRasterBand(bands[i]).GetMaskFlags();
 				
-				band.ReadRaster(0, row, elemsPerRow, 1, elemsPerRow, 1, band.getDataType(), (double[])arr, 0, 0);
-			}
-			else {
+				if ((flags & gdalconst.GMF_ALL_VALID) == 0)
+					allValid = false;
 				
-				throw new IllegalArgumentException("unknown data type in buffering");
+				if ((flags & gdalconst.GMF_PER_DATASET) == 0)
+					perDataset = false;
 			}
-		}
-
-		void getElemBytes(byte[] elem) {
 			
-			for (int i = 0; i < elem.length; i++) {
+			// nothing to read when gdal knows every pixel is valid
 			
-				elem[i] = Array.getByte(arr, readPtr++);
-			}
+			if (allValid)
+				return null;
+			
+			Band first = pixelBand(ds.GetRasterBand(bands[0]), level);
+			
+			if (perDataset || bands.length == 1)
+				return new long[] {first.GetXSize(), first.GetYSize()};
+			
+			return new long[] {first.GetXSize(), first.GetYSize(), bands.length};
 		}
 		
-		void getElemShorts(short[] elem) {
+		private MaskReader(DimensionedDataSource<UnsignedInt8Member> masks, String group, boolean perDataset, int flags, ReadContext ctx) {
 			
-			for (int i = 0; i < elem.length; i++) {
+			this.ctx = ctx;
 			
-				elem[i] = Array.getShort(arr, readPtr++);
-			}
+			this.val = G.UINT8.construct();
+			this.masks = masks;
+			this.planes = new PlaneView<>(masks, 0, 1);
+			this.perDataset = perDataset;
+			this.xSize = (int) masks.dimension(0);
+			this.strip = new byte[0];
+			this.maskBand = null;
+			this.component = null;
+			this.level = 0;
+			
+			// name each mask after the band group it belongs to so bundles
+			//   holding several groups can tell their masks apart
+			
+			masks.setName("mask-"+group);
+			masks.setValueType("mask");
+			masks.metadata().putString("mask-bands", group.substring("band-".length()));
+			masks.metadata().putString("mask-flags", Integer.toString(flags));
+			masks.metadata().putString("mask-per-dataset", Boolean.toString(perDataset));
 		}
 		
-		void getElemInts(int[] elem) {
+		void startPlane(Band band, int level, int plane) {
+			
+			if (perDataset && plane > 0) {
+				
+				maskBand = null;
+				
+				return;
+			}
+			
+			maskBand = pixelBand(band, level).GetMaskBand();
 			
-			for (int i = 0; i < elem.length; i++) {
+			component = "band-" + band.GetBand() + "-mask";
 			
-				elem[i] = Array.getInt(arr, readPtr++);
+			this.level = level;
+			
+			if (masks.numDimensions() > 2) {
+				
+				planes.setPositionValue(0, plane);
 			}
 		}
 		
-		void getElemLongs(long[] elem) {
+		void readStrip(int y0, int rows) {
 			
-			for (int i = 0; i < elem.length; i++) {
+			if (maskBand == null)
+				return;
 			
-				elem[i] = Array.getLong(arr, readPtr++);
+			// masks are cached under their own component just like the data
+			
+			GdalTileCache.Key key = ctx.tileKey(component, level, y0, rows);
+			
+			byte[] values = (byte[]) ctx.cachedTile(key);
+			
+			if (values == null) {
+				
+				if (key != null) {
+					
+					// the cache will own this array
+					
+					values = new byte[xSize * rows];
+				}
+				else {
+					
+					if (strip.length < xSize * rows) {
+						
+						strip = new byte[xSize * rows];
+					}
+					
+					values = strip;
+				}
+				
+				long t0 = (ctx.metrics == null) ? 0 : System.nanoTime();
+				
+				maskBand.ReadRaster(0, y0, xSize, rows, xSize, rows, gdalconst.GDT_Byte, values, 0, 0);
+				
+				if (ctx.metrics != null) ctx.metrics.recordNativeRead(System.nanoTime() - t0, xSize * rows);
+				
+				ctx.cacheTile(key, values);
 			}
-		}
-		
-		void getElemFloats(float[] elem) {
 			
-			for (int i = 0; i < elem.length; i++) {
+			int p = 0;
 			
-				elem[i] = Array.getFloat(arr, readPtr++);
+			for (int y = y0; y < y0 + rows; y++) {
+			
+				for (int x = 0; x < xSize; x++) {
+					
+					val.setV(values[p++]);
+					
+					planes.set(x, y, val);
+				}
 			}
 		}
 		
-		void getElemDoubles(double[] elem) {
+		DimensionedDataSource<UnsignedInt8Member> masks() {
 			
-			for (int i = 0; i < elem.length; i++) {
-			
-				elem[i] = Array.getDouble(arr, readPtr++);
-			}
+			return masks;
 		}
 	}
 }
@@ -0,0 +1,357 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.Vector;
+
+import org.gdal.gdal.Attribute;
+import org.gdal.gdal.Band;
+import org.gdal.gdal.Dataset;
+import org.gdal.gdal.ExtendedDataType;
+import org.gdal.gdal.MDArray;
+import org.gdal.gdal.gdal;
+import org.gdal.gdalconst.gdalconst;
+
+/**
+ * The attributes of one band or multidim array that was read. Values are
+ * typed: Strings, Longs, Doubles, or double[]s for multi valued numeric
+ * array attributes. Band metadata items are held as Strings and can be
+ * fetched as numbers with {@link #getDouble(String)} and
+ * {@link #getLong(String)}. Metadata domains other than the default one
+ * are only read (by reopening the file) when asked for, except for
+ * temporary in-memory files (byte array, stream, mosaic and warp reads)
+ * whose domains are all read while the file is open. Get the attributes
+ * of a dataset with {@link GdalMetadata#attributes}.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public class GdalAttributes {
+
+	private final String filename;
+	
+	private final int bandNumber;
+	
+	private final String description;
+	
+	private final String unit;
+	
+	private final Map<String, Object> values;
+	
+	private final Map<String, Map<String, String>> domains;
+	
+	// true when every domain was read up front (the file cannot be reopened)
+	
+	private boolean allDomains;
+	
+	private GdalAttributes(String filename, int bandNumber, String description, String unit, Map<String, Object> values) {
+		
+		this.filename = filename;
+		
+		this.bandNumber = bandNumber;
+		
+		this.description = (description == null) ? "" : description;
+		
+		this.unit = (unit == null) ? "" : unit;
+		
+		this.values = Collections.unmodifiableMap(values);
+		
+		this.domains = new HashMap<>();
+		
+		this.allDomains = false;
+	}
+	
+	/**
+	 * The description of the band or the full name of the array.
+	 */
+	public String description() {
+		
+		return description;
+	}
+	
+	/**
+	 * The value unit of the band or array (empty if none).
+	 */
+	public String unit() {
+		
+		return unit;
+	}
+	
+	/**
+	 * The gdal number of the band or 0 for a multidim array.
+	 */
+	public int bandNumber() {
+		
+		return bandNumber;
+	}
+	
+	/**
+	 * The names of all the attributes (default domain metadata items for
+	 * bands).
+	 */
+	public Set<String> names() {
+		
+		return values.keySet();
+	}
+	
+	/**
+	 * Returns the typed value of an attribute or null if there is none.
+	 */
+	public Object get(String name) {
+		
+		return values.get(name);
+	}
+	
+	/**
+	 * Returns an attribute as a String or null if there is none.
+	 */
+	public String getString(String name) {
+		
+		Object value = values.get(name);
+		
+		if (value == null)
+			return null;
+		
+		if (value instanceof double[])
+			return java.util.Arrays.toString((double[]) value);
+		
+		return value.toString();
+	}
+	
+	/**
+	 * Returns an attribute as a Double or null if there is none or it is
+	 * not a single number.
+	 */
+	public Double getDouble(String name) {
+		
+		Object value = values.get(name);
+		
+		if (value instanceof Number)
+			return ((Number) value).doubleValue();
+		
+		if (value instanceof String) {
+			
+			try {
+				
+				return Double.valueOf(((String) value).trim());
+				
+			} catch (NumberFormatException e) {
+				
+				return null;
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Returns an attribute as a Long or null if there is none or it is
+	 * not a single integer.
+	 */
+	public Long getLong(String name) {
+		
+		Object value = values.get(name);
+		
+		if (value instanceof Long)
+			return (Long) value;
+		
+		if (value instanceof String) {
+			
+			try {
+				
+				return Long.valueOf(((String) value).trim());
+				
+			} catch (NumberFormatException e) {
+				
+				return null;
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Returns the items of a band's metadata domain (such as "IMAGE_STRUCTURE"),
+	 * reading them from the file the first time they are asked for. Returns an
+	 * empty map for arrays and for unknown domains.
+	 * 
+	 * @param domain
+	 * @throws IllegalArgumentException if the file can no longer be opened
+	 */
+	public synchronized Map<String, String> domain(String domain) {
+		
+		Map<String, String> items = domains.get(domain);
+		
+		if (items == null) {
+			
+			items = new LinkedHashMap<>();
+			
+			if (bandNumber > 0 && !allDomains) {
+				
+				Dataset ds = gdal.OpenEx(filename);
+				
+				if (ds == null)
+					throw new IllegalArgumentException("cannot reopen "+filename+" to read its "+domain+" metadata");
+				
+				try {
+					
+					items.putAll(domainItems(ds.GetRasterBand(bandNumber), domain));
+					
+				} finally {
+					
+					ds.delete();
+				}
+			}
+			
+			items = Collections.unmodifiableMap(items);
+			
+			domains.put(domain, items);
+		}
+		
+		return items;
+	}
+	
+	// capture the default domain metadata of a band and, when the file will
+	//   not outlive the read, every other domain too
+	
+	static GdalAttributes ofBand(String filename, Band band, boolean allDomains) {
+		
+		Map<String, Object> values = new LinkedHashMap<>();
+		
+		@SuppressWarnings("unchecked")
+		Hashtable<String, String> table = (Hashtable<String, String>) band.GetMetadata_Dict();
+		
+		if (table != null) {
+			
+			for (Map.Entry<String, String> entry : table.entrySet()) {
+				
+				String key = entry.getKey();
+				
+				String value = entry.getValue();
+				
+				if (key != null && key.length() > 0 && value != null && value.length() > 0)
+					values.put(key, value);
+			}
+		}
+		
+		GdalAttributes attributes = new GdalAttributes(filename, band.GetBand(), band.GetDescription(), band.GetUnitType(), values);
+		
+		if (allDomains) {
+			
+			@SuppressWarnings("unchecked")
+			Vector<String> names = (Vector<String>) band.GetMetadataDomainList();
+			
+			if (names != null) {
+				
+				for (String name : names) {
+					
+					if (name != null && name.length() > 0)
+						attributes.domains.put(name, Collections.unmodifiableMap(domainItems(band, name)));
+				}
+			}
+			
+			attributes.allDomains = true;
+		}
+		
+		return attributes;
+	}
+	
+	private static Map<String, String> domainItems(Band band, String domain) {
+		
+		Map<String, String> items = new LinkedHashMap<>();
+		
+		@SuppressWarnings("unchecked")
+		Hashtable<String, String> table = (Hashtable<String, String>) band.GetMetadata_Dict(domain);
+		
+		if (table != null)
+			items.putAll(table);
+		
+		return items;
+	}
+	
+	// capture the attributes of a multidim array with their types
+	
+	static GdalAttributes ofArray(String filename, MDArray data) {
+		
+		Map<String, Object> values = new LinkedHashMap<>();
+		
+		Attribute[] attributes = data.GetAttributes(new Vector<String>());
+		
+		if (attributes != null) {
+			
+			for (Attribute attr : attributes) {
+				
+				Object value = attributeValue(attr);
+				
+				if (value != null)
+					values.put(attr.GetName(), value);
+			}
+		}
+		
+		return new GdalAttributes(filename, 0, data.GetFullName(), data.GetUnit(), values);
+	}
+	
+	private static Object attributeValue(Attribute attr) {
+		
+		ExtendedDataType type = attr.GetDataType();
+		
+		if (type.GetClass() == gdalconst.GEDTC_STRING)
+			return attr.ReadAsString();
+		
+		if (type.GetClass() != gdalconst.GEDTC_NUMERIC)
+			return null;
+		
+		if (attr.GetTotalElementsCount() != 1) {
+			
+			Double[][] holder = new Double[1][];
+			
+			attr.ReadAsDoubleArray(holder);
+			
+			if (holder[0] == null)
+				return null;
+			
+			double[] array = new double[holder[0].length];
+			
+			for (int i = 0; i < array.length; i++) {
+				
+				array[i] = holder[0][i];
+			}
+			
+			return array;
+		}
+		
+		int numType = type.GetNumericDataType();
+		
+		if (numType == gdalconst.GDT_Float32 || numType == gdalconst.GDT_Float64)
+			return attr.ReadAsDouble();
+		
+		return attr.ReadAsInt64();
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import nom.bdezonia.zorbage.misc.DataBundle;
+
+/**
+ * Receives the results of a {@link GdalBatchReader} as each file finishes.
+ * Calls are never made concurrently but may come from any thread.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public interface GdalBatchListener {
+
+	/**
+	 * Called when a file has been read.
+	 * 
+	 * @param index The position of the file in the batch
+	 * @param filename The gdal name of the file
+	 * @param bundle The datasets read from the file
+	 */
+	void fileRead(int index, String filename, DataBundle bundle);
+	
+	/**
+	 * Called when a file could not be read. The rest of the batch carries on.
+	 * 
+	 * @param index The position of the file in the batch
+	 * @param filename The gdal name of the file
+	 * @param failure The reason the read failed. Errors (such as an
+	 *   OutOfMemoryError) arrive wrapped in an ExecutionException.
+	 */
+	void fileFailed(int index, String filename, Exception failure);
+	
+	/**
+	 * Called after each file has been read or has failed.
+	 * 
+	 * @param completed The number of files finished so far
+	 * @param total The number of files in the batch
+	 */
+	default void progress(int completed, int total) {
+	}
+}
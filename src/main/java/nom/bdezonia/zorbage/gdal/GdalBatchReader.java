@@ -0,0 +1,345 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import nom.bdezonia.zorbage.misc.DataBundle;
+
+/**
+ * Reads many files concurrently while keeping at most a fixed number of
+ * them open at once. Each file is read with Gdal.readAllDatasets() and its
+ * DataBundle is handed to a {@link GdalBatchListener} as soon as it is
+ * done, so a batch never collects every result in memory. A failed file
+ * is reported to the listener and does not stop the batch.
+ * <p>
+ * By default a batch runs on its own pool of threads. Any Executor can be
+ * supplied instead (for instance a virtual thread per task executor on
+ * newer JVMs); the concurrency limit applies either way.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public class GdalBatchReader {
+
+	private final int maxConcurrent;
+	
+	private final GdalReadOptions options;
+	
+	private final Executor executor;
+	
+	/**
+	 * Create a batch reader that runs on its own threads.
+	 * 
+	 * @param maxConcurrent The most files that will be read at once
+	 * @param options The options used to read each file
+	 */
+	public GdalBatchReader(int maxConcurrent, GdalReadOptions options) {
+		
+		this(maxConcurrent, options, null);
+	}
+	
+	/**
+	 * Create a batch reader that runs on the given executor.
+	 * 
+	 * @param maxConcurrent The most files that will be read at once
+	 * @param options The options used to read each file
+	 * @param executor The executor that runs reads or null to use an internal pool
+	 */
+	public GdalBatchReader(int maxConcurrent, GdalReadOptions options, Executor executor) {
+		
+		if (maxConcurrent < 1)
+			throw new IllegalArgumentException("concurrency limit must be at least 1");
+		
+		if (options == null)
+			throw new IllegalArgumentException("options cannot be null");
+		
+		this.maxConcurrent = maxConcurrent;
+		
+		this.options = options;
+		
+		this.executor = executor;
+	}
+	
+	/**
+	 * Read a batch of files, passing each result to the listener as it
+	 * completes. Returns once every file has been read or has failed.
+	 * <p>
+	 * If the calling thread is interrupted the reads still in flight are
+	 * interrupted too, and the InterruptedException is thrown only after
+	 * they have ended. The listener hears nothing more once read() has
+	 * returned or thrown.
+	 * 
+	 * @param filenames
+	 * @param listener
+	 * @throws InterruptedException if interrupted while waiting for reads
+	 */
+	public void read(List<String> filenames, GdalBatchListener listener)
+		
+		throws InterruptedException
+	{
+		if (listener == null)
+			throw new IllegalArgumentException("listener cannot be null");
+		
+		final int total = filenames.size();
+		
+		final Semaphore permits = new Semaphore(maxConcurrent);
+		
+		final CountDownLatch done = new CountDownLatch(total);
+		
+		final int[] completed = new int[1];
+		
+		final Batch batch = new Batch();
+		
+		int submitted = 0;
+		
+		ExecutorService pool = null;
+		
+		Executor runner = executor;
+		
+		if (runner == null) {
+			
+			pool = Executors.newFixedThreadPool(Math.min(maxConcurrent, Math.max(1, total)));
+			
+			runner = pool;
+		}
+		
+		try {
+		
+			for (int i = 0; i < total; i++) {
+				
+				final int index = i;
+				
+				final String filename = filenames.get(i);
+				
+				// waiting here bounds both open files and queued work
+				
+				permits.acquire();
+				
+				Runnable task = () -> {
+					
+					// whatever happens the batch must hear that this file is done
+					
+					try {
+						
+						DataBundle bundle = null;
+						
+						Exception failure = null;
+						
+						try {
+							
+							if (!batch.started())
+								return;
+							
+							bundle = Gdal.readAllDatasets(filename, options);
+							
+						} catch (Exception e) {
+							
+							failure = e;
+							
+						} catch (Throwable t) {
+							
+							// errors (out of memory, native link errors, ...)
+							//   fail this file rather than stall the batch
+							
+							failure = new ExecutionException("reading "+filename+" failed", t);
+							
+						} finally {
+							
+							batch.ended();
+							
+							permits.release();
+						}
+						
+						synchronized (listener) {
+							
+							if (batch.stopped)
+								return;
+							
+							try {
+								
+								if (failure == null)
+									listener.fileRead(index, filename, bundle);
+								else
+									listener.fileFailed(index, filename, failure);
+								
+							} finally {
+								
+								// count the file even when the listener throws
+								
+								listener.progress(++completed[0], total);
+							}
+						}
+						
+					} finally {
+						
+						done.countDown();
+					}
+				};
+				
+				try {
+					
+					runner.execute(task);
+					
+				} catch (RejectedExecutionException e) {
+					
+					permits.release();
+					
+					throw e;
+				}
+				
+				submitted++;
+			}
+			
+			done.await();
+			
+		} catch (InterruptedException | RuntimeException e) {
+			
+			// stop the batch and wait out the reads already handed to the
+			//   runner so none of them reaches the listener after we return
+			
+			synchronized (listener) {
+				
+				batch.stopped = true;
+			}
+			
+			batch.interruptRunning();
+			
+			for (int i = submitted; i < total; i++) {
+				
+				done.countDown();
+			}
+			
+			awaitUninterruptibly(done);
+			
+			throw e;
+			
+		} finally {
+			
+			if (pool != null)
+				pool.shutdown();
+		}
+	}
+	
+	/**
+	 * Read a batch of URIs. Each URI is mapped to a gdal name the same way
+	 * Gdal.readAllDatasets(URI) does; the listener sees those gdal names.
+	 * 
+	 * @param uris
+	 * @param listener
+	 * @throws InterruptedException if interrupted while waiting for reads
+	 */
+	public void readUris(List<URI> uris, GdalBatchListener listener)
+		
+		throws InterruptedException
+	{
+		List<String> filenames = new ArrayList<>(uris.size());
+		
+		for (URI uri : uris) {
+			
+			filenames.add(VsiNames.toGdalName(uri));
+		}
+		
+		read(filenames, listener);
+	}
+	
+	private static void awaitUninterruptibly(CountDownLatch latch) {
+		
+		boolean interrupted = false;
+		
+		while (true) {
+			
+			try {
+				
+				latch.await();
+				
+				break;
+				
+			} catch (InterruptedException e) {
+				
+				interrupted = true;
+			}
+		}
+		
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+	
+	// The threads reading files of one batch and whether the batch was
+	//   stopped. Only threads that are reading a file of this batch are
+	//   interrupted, and a thread clears an interrupt the batch gave it
+	//   before going back to its executor.
+	
+	private static class Batch {
+		
+		volatile boolean stopped = false;
+		
+		private final Set<Thread> running = new HashSet<>();
+		
+		private final Set<Thread> interrupted = new HashSet<>();
+		
+		// returns false if the batch was stopped before this read started
+		
+		synchronized boolean started() {
+			
+			if (stopped)
+				return false;
+			
+			running.add(Thread.currentThread());
+			
+			return true;
+		}
+		
+		synchronized void ended() {
+			
+			Thread thread = Thread.currentThread();
+			
+			running.remove(thread);
+			
+			if (interrupted.remove(thread))
+				Thread.interrupted();
+		}
+		
+		synchronized void interruptRunning() {
+			
+			for (Thread thread : running) {
+				
+				thread.interrupt();
+				
+				interrupted.add(thread);
+			}
+		}
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+import org.gdal.gdal.ProgressCallback;
+
+/**
+ * A token that stops reads early. Pass one to
+ * {@link GdalReadOptions#setCancellation(GdalCancellation)}. Reads check
+ * it between strips, chunks and bands, and gdal checks it during the
+ * operations that take a progress callback. A read that sees a cancelled
+ * token throws a {@link CancellationException}. A token can be cancelled
+ * from any thread and can be shared by many reads.
+ * <p>
+ * A token with a deadline cancels itself when the deadline passes.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public class GdalCancellation {
+
+	private volatile boolean cancelled;
+	
+	private volatile boolean hasDeadline;
+	
+	private volatile long deadline;
+	
+	/**
+	 * Create a token that has not been cancelled and has no deadline.
+	 */
+	public GdalCancellation() {
+		
+		this.cancelled = false;
+		
+		this.hasDeadline = false;
+		
+		this.deadline = 0;
+	}
+	
+	/**
+	 * Cancel every read that uses this token.
+	 */
+	public void cancel() {
+		
+		cancelled = true;
+	}
+	
+	/**
+	 * Cancel every read that uses this token once the given time from
+	 * now has passed. Replaces any earlier deadline.
+	 * 
+	 * @param duration
+	 * @param unit
+	 * @return this token
+	 */
+	public GdalCancellation cancelAfter(long duration, TimeUnit unit) {
+		
+		if (duration < 0)
+			throw new IllegalArgumentException("duration cannot be negative");
+		
+		deadline = System.nanoTime() + unit.toNanos(duration);
+		
+		hasDeadline = true;
+		
+		return this;
+	}
+	
+	/**
+	 * Returns true if the token has been cancelled or its deadline has passed.
+	 */
+	public boolean isCancelled() {
+		
+		return cancelled || deadlinePassed();
+	}
+	
+	private boolean deadlinePassed() {
+		
+		return hasDeadline && System.nanoTime() - deadline >= 0;
+	}
+	
+	/**
+	 * Throws a CancellationException naming the read if the token has
+	 * been cancelled.
+	 */
+	void check(String filename) {
+		
+		if (cancelled)
+			throw new CancellationException("read of "+filename+" was cancelled");
+		
+		if (deadlinePassed())
+			throw new CancellationException("read of "+filename+" passed its deadline");
+	}
+	
+	/**
+	 * Returns a gdal progress callback that tells gdal to stop once the
+	 * token is cancelled.
+	 */
+	ProgressCallback gdalCallback() {
+		
+		return new ProgressCallback() {
+			
+			@Override
+			public int run(double complete, String message) {
+				
+				return isCancelled() ? 0 : 1;
+			}
+		};
+	}
+}
@@ -0,0 +1,286 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The read metrics of a single dataset. Times are split into three phases:
+ * opening the dataset with gdal, native reads (ReadRaster() and MDArray
+ * Read() calls), and the java side conversion of values into zorbage
+ * storage. All counters are safe to update from many threads at once.
+ * <p>
+ * A registry holds one aggregate record per dataset. Each read call made
+ * with a registry also gets a record of its own (see
+ * {@link GdalReadResult#metrics()}) whose counts are added to the
+ * aggregate as they are recorded.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public class GdalDatasetMetrics {
+
+	private final String name;
+	
+	// the aggregate record this per-call record adds to (or null)
+	
+	private final GdalDatasetMetrics aggregate;
+	
+	private final LongAdder calls = new LongAdder();
+	
+	private final LongAdder callNanos = new LongAdder();
+	
+	private final LongAdder opens = new LongAdder();
+	
+	private final LongAdder openNanos = new LongAdder();
+	
+	private final LongAdder nativeReadCalls = new LongAdder();
+	
+	private final LongAdder nativeReadNanos = new LongAdder();
+	
+	private final LongAdder bytesRead = new LongAdder();
+	
+	private final LongAdder convertNanos = new LongAdder();
+	
+	private final LongAdder pixelsConverted = new LongAdder();
+	
+	private final LongAdder bufferAllocations = new LongAdder();
+	
+	private final LongAdder cacheHits = new LongAdder();
+	
+	private final LongAdder cacheMisses = new LongAdder();
+	
+	GdalDatasetMetrics(String name) {
+		
+		this(name, null);
+	}
+	
+	GdalDatasetMetrics(String name, GdalDatasetMetrics aggregate) {
+		
+		this.name = name;
+		
+		this.aggregate = aggregate;
+	}
+	
+	/**
+	 * Returns a record for one read call of the named source that adds to
+	 * the source's aggregate record, or null when the options collect no
+	 * metrics.
+	 */
+	static GdalDatasetMetrics forCall(GdalReadOptions options, String source) {
+		
+		GdalMetrics registry = options.metrics();
+		
+		if (registry == null)
+			return null;
+		
+		return new GdalDatasetMetrics(source, registry.dataset(source));
+	}
+	
+	void recordCall(long nanos) {
+		
+		calls.increment();
+		
+		callNanos.add(nanos);
+		
+		if (aggregate != null) aggregate.recordCall(nanos);
+	}
+	
+	void recordOpen(long nanos) {
+		
+		opens.increment();
+		
+		openNanos.add(nanos);
+		
+		if (aggregate != null) aggregate.recordOpen(nanos);
+	}
+	
+	void recordNativeRead(long nanos, long bytes) {
+		
+		nativeReadCalls.increment();
+		
+		nativeReadNanos.add(nanos);
+		
+		bytesRead.add(bytes);
+		
+		if (aggregate != null) aggregate.recordNativeRead(nanos, bytes);
+	}
+	
+	void recordConversion(long nanos, long pixels) {
+		
+		convertNanos.add(nanos);
+		
+		pixelsConverted.add(pixels);
+		
+		if (aggregate != null) aggregate.recordConversion(nanos, pixels);
+	}
+	
+	void recordBufferAllocation() {
+		
+		bufferAllocations.increment();
+		
+		if (aggregate != null) aggregate.recordBufferAllocation();
+	}
+	
+	void recordCacheHit() {
+		
+		cacheHits.increment();
+		
+		if (aggregate != null) aggregate.recordCacheHit();
+	}
+	
+	void recordCacheMiss() {
+		
+		cacheMisses.increment();
+		
+		if (aggregate != null) aggregate.recordCacheMiss();
+	}
+	
+	/**
+	 * The gdal name of the dataset these metrics belong to.
+	 */
+	public String name() {
+		
+		return name;
+	}
+	
+	/**
+	 * The number of top level read calls recorded (read(), readMosaic(),
+	 * readWarped() and the calls built on them).
+	 */
+	public long calls() {
+		
+		return calls.sum();
+	}
+	
+	/**
+	 * Nanoseconds of wall clock time spent in top level read calls, from
+	 * the start of each call to its return.
+	 */
+	public long callNanos() {
+		
+		return callNanos.sum();
+	}
+	
+	/**
+	 * The number of times gdal opened the dataset.
+	 */
+	public long opens() {
+		
+		return opens.sum();
+	}
+	
+	/**
+	 * Nanoseconds spent in gdal.OpenEx() calls.
+	 */
+	public long openNanos() {
+		
+		return openNanos.sum();
+	}
+	
+	/**
+	 * The number of native ReadRaster() / Read() calls made. This is not
+	 * the number of http requests a remote read makes: gdal may answer
+	 * many calls from one merged range request or split one call across
+	 * several requests.
+	 */
+	public long nativeReadCalls() {
+		
+		return nativeReadCalls.sum();
+	}
+	
+	/**
+	 * Nanoseconds spent inside native read calls.
+	 */
+	public long nativeReadNanos() {
+		
+		return nativeReadNanos.sum();
+	}
+	
+	/**
+	 * Bytes delivered by native read calls.
+	 */
+	public long bytesRead() {
+		
+		return bytesRead.sum();
+	}
+	
+	/**
+	 * Nanoseconds spent converting values into zorbage storage.
+	 */
+	public long convertNanos() {
+		
+		return convertNanos.sum();
+	}
+	
+	/**
+	 * The number of values converted into zorbage storage.
+	 */
+	public long pixelsConverted() {
+		
+		return pixelsConverted.sum();
+	}
+	
+	/**
+	 * The number of read buffers allocated.
+	 */
+	public long bufferAllocations() {
+		
+		return bufferAllocations.sum();
+	}
+	
+	/**
+	 * The number of reads satisfied from a cache.
+	 */
+	public long cacheHits() {
+		
+		return cacheHits.sum();
+	}
+	
+	/**
+	 * The number of reads that missed a cache.
+	 */
+	public long cacheMisses() {
+		
+		return cacheMisses.sum();
+	}
+	
+	@Override
+	public String toString() {
+		
+		return name +
+				": calls=" + calls() +
+				" callNanos=" + callNanos() +
+				" opens=" + opens() +
+				" openNanos=" + openNanos() +
+				" nativeReadCalls=" + nativeReadCalls() +
+				" nativeReadNanos=" + nativeReadNanos() +
+				" bytesRead=" + bytesRead() +
+				" convertNanos=" + convertNanos() +
+				" pixelsConverted=" + pixelsConverted() +
+				" bufferAllocations=" + bufferAllocations() +
+				" cacheHits=" + cacheHits() +
+				" cacheMisses=" + cacheMisses();
+	}
+}
@@ -0,0 +1,235 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import nom.bdezonia.zorbage.data.DimensionedDataSource;
+
+/**
+ * A limit on the bytes of heap that datasets read by {@link Gdal} may
+ * hold at once. Pass one to
+ * {@link GdalReadOptions#setMemoryBudget(GdalMemoryBudget)}. Reads that
+ * share a budget (from any number of threads) draw from the same pool.
+ * <p>
+ * The decoded size of each dataset is worked out from the file's metadata
+ * before any storage is allocated. A dataset that does not fit the bytes
+ * that remain is handled by the budget's {@link Policy}. The bytes of a
+ * dataset are given back when {@link #release(DimensionedDataSource)} is
+ * called on it or once it has been garbage collected. A read that fails
+ * or is cancelled gives back the bytes of everything it had allocated
+ * before it throws.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public class GdalMemoryBudget {
+
+	/**
+	 * What a read does with a dataset that does not fit the budget.
+	 */
+	public enum Policy {
+		
+		/**
+		 * Fail the read before allocating anything when the datasets of
+		 * the file together do not fit. (A container's subdatasets are
+		 * each checked as they are reached.)
+		 */
+		FAIL,
+		
+		/**
+		 * Read the dataset at a lower resolution that fits: banded data
+		 * from the largest gdal overview that fits and multidim arrays
+		 * with their two fastest varying axes decimated. Fail when no
+		 * such resolution exists (such as for time series).
+		 */
+		DOWNSAMPLE,
+		
+		/**
+		 * Read the dataset at full resolution into file backed storage
+		 * that only keeps part of it on the heap. Spilled datasets are not
+		 * charged to the budget.
+		 */
+		SPILL
+	}
+	
+	private final long limit;
+	
+	private final Policy policy;
+	
+	private final AtomicLong used;
+	
+	private final ReferenceQueue<Object> collected;
+	
+	private final Set<Reservation> reservations;
+	
+	/**
+	 * Create a budget.
+	 * 
+	 * @param bytes The most bytes datasets may hold at once
+	 * @param policy What to do with datasets that do not fit
+	 */
+	public GdalMemoryBudget(long bytes, Policy policy) {
+		
+		if (bytes < 0)
+			throw new IllegalArgumentException("memory budget cannot be negative");
+		
+		if (policy == null)
+			throw new IllegalArgumentException("memory budget needs a policy");
+		
+		this.limit = bytes;
+		
+		this.policy = policy;
+		
+		this.used = new AtomicLong();
+		
+		this.collected = new ReferenceQueue<>();
+		
+		this.reservations = ConcurrentHashMap.newKeySet();
+	}
+	
+	/**
+	 * Returns the most bytes datasets may hold at once.
+	 */
+	public long limit() {
+		
+		return limit;
+	}
+	
+	/**
+	 * Returns what reads do with datasets that do not fit.
+	 */
+	public Policy policy() {
+		
+		return policy;
+	}
+	
+	/**
+	 * Returns the bytes held by datasets read under this budget.
+	 */
+	public long used() {
+		
+		expunge();
+		
+		return used.get();
+	}
+	
+	/**
+	 * Returns the bytes that remain for new datasets.
+	 */
+	public long available() {
+		
+		return Math.max(0, limit - used());
+	}
+	
+	/**
+	 * Give back the bytes held by a dataset that is no longer needed. Does
+	 * nothing for datasets that were not charged to this budget.
+	 * 
+	 * @param data
+	 */
+	public void release(DimensionedDataSource<?> data) {
+		
+		for (Reservation r : reservations) {
+			
+			if (r.get() == data)
+				r.release();
+		}
+	}
+	
+	// Take bytes from the budget. Returns false (taking nothing) if they
+	//   do not fit.
+	
+	boolean reserve(long bytes) {
+		
+		expunge();
+		
+		while (true) {
+			
+			long current = used.get();
+			
+			if (bytes > limit - current)
+				return false;
+			
+			if (used.compareAndSet(current, current + bytes))
+				return true;
+		}
+	}
+	
+	// give back bytes that were reserved but never allocated
+	
+	void unreserve(long bytes) {
+		
+		used.addAndGet(-bytes);
+	}
+	
+	// tie reserved bytes to the lifetime of the dataset that holds them
+	
+	void track(DimensionedDataSource<?> data, long bytes) {
+		
+		reservations.add(new Reservation(data, bytes));
+	}
+	
+	private void expunge() {
+		
+		Reference<?> ref;
+		
+		while ((ref = collected.poll()) != null) {
+			
+			((Reservation) ref).release();
+		}
+	}
+	
+	private class Reservation extends WeakReference<Object> {
+		
+		private final long bytes;
+		
+		private final AtomicBoolean released;
+		
+		Reservation(Object data, long bytes) {
+			
+			super(data, collected);
+			
+			this.bytes = bytes;
+			
+			this.released = new AtomicBoolean(false);
+		}
+		
+		void release() {
+			
+			if (released.compareAndSet(false, true)) {
+				
+				used.addAndGet(-bytes);
+				
+				reservations.remove(this);
+			}
+		}
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import nom.bdezonia.zorbage.data.DimensionedDataSource;
+
+/**
+ * Finds the band and array attributes of datasets read by {@link Gdal}.
+ * Attributes are kept only as long as their dataset is and are not
+ * copied into the dataset's own metadata (which holds just each band's
+ * number, description and units), so copies of a dataset do not carry
+ * them.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public class GdalMetadata {
+
+	private static final Map<DimensionedDataSource<?>, List<GdalAttributes>> ATTRIBUTES =
+			
+			Collections.synchronizedMap(new WeakHashMap<>());
+	
+	private GdalMetadata() { }
+	
+	/**
+	 * Returns the attributes of each plane of a dataset (one per band for
+	 * banded data, one for a multidim array). Returns an empty list for
+	 * datasets that were not read by gdal.
+	 * 
+	 * @param data
+	 */
+	public static List<GdalAttributes> attributes(DimensionedDataSource<?> data) {
+		
+		List<GdalAttributes> list = ATTRIBUTES.get(data);
+		
+		if (list == null)
+			return Collections.emptyList();
+		
+		synchronized (list) {
+			
+			return new ArrayList<>(list);
+		}
+	}
+	
+	static void attach(DimensionedDataSource<?> data, GdalAttributes attributes) {
+		
+		List<GdalAttributes> list;
+		
+		synchronized (ATTRIBUTES) {
+			
+			list = ATTRIBUTES.get(data);
+			
+			if (list == null) {
+				
+				list = new ArrayList<>();
+				
+				ATTRIBUTES.put(data, list);
+			}
+		}
+		
+		synchronized (list) {
+			
+			list.add(attributes);
+		}
+	}
+}
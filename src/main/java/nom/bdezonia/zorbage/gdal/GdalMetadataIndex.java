@@ -0,0 +1,501 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An on disk index of file structures that survives JVM restarts. Entries
+ * are keyed by path, file size, and modification time so a changed file is
+ * always probed again. Pass an index to {@link Gdal#describe(String, GdalMetadataIndex)}
+ * and structure queries of indexed files never open the file with gdal.
+ * <p>
+ * The index file is an append only log of binary records that is memory
+ * mapped when opened. Only record headers are scanned at open time; a
+ * record's structure is decoded when it is looked up. Later records for a
+ * path replace earlier ones; {@link #compact()} rewrites the file without
+ * the replaced records. A record left partly written by a crash is cut
+ * off when the index is next opened. Only local files are indexed. An
+ * index file can hold at most 2 GiB of records (the most a single mapping
+ * can cover).
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public class GdalMetadataIndex {
+
+	private static final int MAGIC = 0x5a474d49;  // "ZGMI"
+	
+	private static final int VERSION = 1;
+	
+	// records are located by int offsets into a single mapping
+	
+	private static final long MAX_INDEX_BYTES = Integer.MAX_VALUE;
+	
+	private final Path indexFile;
+	
+	private MappedByteBuffer mapped;
+	
+	// the length of the index file including records stored since mapping
+	
+	private long indexBytes;
+	
+	// path -> offset of its latest record in the mapped file
+	
+	private final Map<String, Integer> mappedRecords;
+	
+	// records stored since the file was mapped
+	
+	private final Map<String, Entry> recentRecords;
+	
+	/**
+	 * Open (or create) the index stored in the given file.
+	 * 
+	 * @param indexFile
+	 * @throws IOException if an existing index cannot be read
+	 */
+	public GdalMetadataIndex(Path indexFile) throws IOException {
+		
+		this.indexFile = indexFile;
+		
+		this.mappedRecords = new HashMap<>();
+		
+		this.recentRecords = new HashMap<>();
+		
+		if (!Files.exists(indexFile) || Files.size(indexFile) == 0) {
+			
+			try (DataOutputStream out = new DataOutputStream(new FileOutputStream(indexFile.toFile()))) {
+				
+				out.writeInt(MAGIC);
+				
+				out.writeInt(VERSION);
+			}
+		}
+		
+		map();
+	}
+	
+	/**
+	 * Returns the indexed structure of a file or null if the file is not
+	 * indexed or has changed since it was indexed.
+	 * 
+	 * @param filename
+	 */
+	public synchronized GdalStructure lookup(String filename) {
+		
+		long[] stamp = stamp(filename);
+		
+		if (stamp == null)
+			return null;
+		
+		Entry entry = recentRecords.get(filename);
+		
+		if (entry == null) {
+			
+			Integer offset = mappedRecords.get(filename);
+			
+			if (offset == null)
+				return null;
+			
+			entry = decode(mapped, offset);
+		}
+		
+		if (entry.size != stamp[0] || entry.mtime != stamp[1])
+			return null;
+		
+		return entry.structure;
+	}
+	
+	/**
+	 * Add a file's structure to the index.
+	 * 
+	 * @param structure
+	 * @throws IOException if the index file cannot be written
+	 */
+	public synchronized void store(GdalStructure structure) throws IOException {
+		
+		long[] stamp = stamp(structure.filename());
+		
+		if (stamp == null)
+			return;
+		
+		Entry entry = new Entry(structure, stamp[0], stamp[1]);
+		
+		byte[] record = encode(entry);
+		
+		if (indexBytes + record.length > MAX_INDEX_BYTES)
+			throw new IOException(indexFile + " is full; compact() it or use a new index");
+		
+		Files.write(indexFile, record, StandardOpenOption.APPEND);
+		
+		indexBytes += record.length;
+		
+		recentRecords.put(structure.filename(), entry);
+	}
+	
+	/**
+	 * Rewrite the index file keeping only the latest record of each file.
+	 * 
+	 * @throws IOException if the index file cannot be rewritten
+	 */
+	public synchronized void compact() throws IOException {
+		
+		Map<String, Entry> latest = new HashMap<>();
+		
+		for (Map.Entry<String, Integer> e : mappedRecords.entrySet()) {
+			
+			latest.put(e.getKey(), decode(mapped, e.getValue()));
+		}
+		
+		latest.putAll(recentRecords);
+		
+		Path tmp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+		
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp.toFile())))) {
+			
+			out.writeInt(MAGIC);
+			
+			out.writeInt(VERSION);
+			
+			for (Entry entry : latest.values()) {
+				
+				out.write(encode(entry));
+			}
+		}
+		
+		// the old file cannot be replaced while it is still mapped (on
+		//   Windows) and the mapping would go on showing its old contents
+		
+		unmap(mapped);
+		
+		mapped = null;
+		
+		try {
+			
+			Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+			
+		} finally {
+			
+			// remap whichever file is now in place
+			
+			map();
+		}
+	}
+	
+	private void map() throws IOException {
+		
+		mappedRecords.clear();
+		
+		recentRecords.clear();
+		
+		try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+			
+			indexBytes = channel.size();
+			
+			if (indexBytes > MAX_INDEX_BYTES)
+				throw new IOException(indexFile + " is larger than an index can be");
+			
+			mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, indexBytes);
+		}
+		
+		if (mapped.limit() < 8 || mapped.getInt(0) != MAGIC)
+			throw new IOException(indexFile + " is not a metadata index");
+		
+		if (mapped.getInt(4) != VERSION)
+			throw new IOException(indexFile + " has an unsupported index version");
+		
+		int pos = 8;
+		
+		while (pos + 4 <= mapped.limit()) {
+			
+			int length = mapped.getInt(pos);
+			
+			// ignore a partially written final record
+			
+			if (length <= 0 || ((long) pos) + 4 + length > mapped.limit())
+				break;
+			
+			ByteBuffer buf = mapped.duplicate();
+			
+			buf.position(pos + 4);
+			
+			mappedRecords.put(getString(buf), pos);
+			
+			pos += 4 + length;
+		}
+		
+		// drop a torn tail so later records are appended after the last
+		//   good one instead of after bytes no scan can get past
+		
+		if (pos < mapped.limit()) {
+			
+			unmap(mapped);
+			
+			mapped = null;
+			
+			try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				
+				channel.truncate(pos);
+				
+				indexBytes = pos;
+				
+				mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, indexBytes);
+			}
+		}
+	}
+	
+	// Release a mapping now instead of when it is garbage collected. Uses
+	//   the jdk's Unsafe.invokeCleaner() when it is available. The buffer
+	//   must never be touched again.
+	
+	private static void unmap(MappedByteBuffer buffer) {
+		
+		if (buffer == null)
+			return;
+		
+		try {
+			
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			
+			Field field = unsafeClass.getDeclaredField("theUnsafe");
+			
+			field.setAccessible(true);
+			
+			Object unsafe = field.get(null);
+			
+			unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(unsafe, buffer);
+			
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			
+			// the mapping is released when the buffer is collected
+		}
+	}
+	
+	// files that do not exist locally (such as /vsi names) get no stamp
+	
+	private static long[] stamp(String filename) {
+		
+		if (filename.startsWith("/vsi"))
+			return null;
+		
+		try {
+			
+			BasicFileAttributes attrs = Files.readAttributes(Paths.get(filename), BasicFileAttributes.class);
+			
+			return new long[] {attrs.size(), attrs.lastModifiedTime().toMillis()};
+			
+		} catch (IOException | RuntimeException e) {
+			
+			return null;
+		}
+	}
+	
+	// record layout (big endian):
+	//   int length of the rest of the record
+	//   string path, long size, long mtime
+	//   int subdataset count, strings
+	//   int array count, for each array:
+	//     string name, int data type, int dim count, longs,
+	//     byte flags (1 = has scale, 2 = has offset), double scale, double offset,
+	//     string unit
+	// strings are an int byte count followed by utf-8 bytes
+	
+	private static byte[] encode(Entry entry) throws IOException {
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		
+		DataOutputStream out = new DataOutputStream(bytes);
+		
+		GdalStructure structure = entry.structure;
+		
+		putString(out, structure.filename());
+		
+		out.writeLong(entry.size);
+		
+		out.writeLong(entry.mtime);
+		
+		out.writeInt(structure.subdatasets().size());
+		
+		for (String name : structure.subdatasets()) {
+			
+			putString(out, name);
+		}
+		
+		out.writeInt(structure.arrays().size());
+		
+		for (GdalStructure.ArrayInfo info : structure.arrays()) {
+			
+			putString(out, info.name());
+			
+			out.writeInt(info.dataType());
+			
+			long[] dims = info.dims();
+			
+			out.writeInt(dims.length);
+			
+			for (long d : dims) {
+				
+				out.writeLong(d);
+			}
+			
+			int flags = 0;
+			
+			if (info.scale() != null) flags |= 1;
+			
+			if (info.offset() != null) flags |= 2;
+			
+			out.writeByte(flags);
+			
+			out.writeDouble((info.scale() == null) ? 0 : info.scale());
+			
+			out.writeDouble((info.offset() == null) ? 0 : info.offset());
+			
+			putString(out, info.unit());
+		}
+		
+		out.flush();
+		
+		ByteArrayOutputStream record = new ByteArrayOutputStream();
+		
+		DataOutputStream recordOut = new DataOutputStream(record);
+		
+		recordOut.writeInt(bytes.size());
+		
+		bytes.writeTo(recordOut);
+		
+		recordOut.flush();
+		
+		return record.toByteArray();
+	}
+	
+	private static Entry decode(ByteBuffer source, int offset) {
+		
+		ByteBuffer buf = source.duplicate();
+		
+		buf.position(offset + 4);
+		
+		String filename = getString(buf);
+		
+		long size = buf.getLong();
+		
+		long mtime = buf.getLong();
+		
+		int numSubdatasets = buf.getInt();
+		
+		List<String> subdatasets = new ArrayList<>(numSubdatasets);
+		
+		for (int i = 0; i < numSubdatasets; i++) {
+			
+			subdatasets.add(getString(buf));
+		}
+		
+		int numArrays = buf.getInt();
+		
+		List<GdalStructure.ArrayInfo> arrays = new ArrayList<>(numArrays);
+		
+		for (int i = 0; i < numArrays; i++) {
+			
+			String name = getString(buf);
+			
+			int dataType = buf.getInt();
+			
+			long[] dims = new long[buf.getInt()];
+			
+			for (int d = 0; d < dims.length; d++) {
+				
+				dims[d] = buf.getLong();
+			}
+			
+			int flags = buf.get();
+			
+			double scale = buf.getDouble();
+			
+			double off = buf.getDouble();
+			
+			String unit = getString(buf);
+			
+			arrays.add(new GdalStructure.ArrayInfo(name, dims, dataType,
+							((flags & 1) != 0) ? scale : null,
+							((flags & 2) != 0) ? off : null,
+							unit));
+		}
+		
+		return new Entry(new GdalStructure(filename, subdatasets, arrays), size, mtime);
+	}
+	
+	private static void putString(DataOutputStream out, String s) throws IOException {
+		
+		byte[] bytes = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+		
+		out.writeInt(bytes.length);
+		
+		out.write(bytes);
+	}
+	
+	private static String getString(ByteBuffer buf) {
+		
+		byte[] bytes = new byte[buf.getInt()];
+		
+		buf.get(bytes);
+		
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	private static class Entry {
+		
+		final GdalStructure structure;
+		
+		final long size;
+		
+		final long mtime;
+		
+		Entry(GdalStructure structure, long size, long mtime) {
+			
+			this.structure = structure;
+			
+			this.size = size;
+			
+			this.mtime = mtime;
+		}
+	}
+}
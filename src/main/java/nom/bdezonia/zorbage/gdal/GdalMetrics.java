@@ -0,0 +1,114 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A registry of read metrics. Pass one to {@link GdalReadOptions#setMetrics(GdalMetrics)}
+ * and every read made with those options records its timings and counts
+ * against the name of the file being read. One registry can be shared by
+ * many concurrent reads. When no registry is set the readers skip all
+ * metric collection.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public class GdalMetrics {
+
+	/**
+	 * The name the metrics of reads of byte arrays, buffers, and streams
+	 * are recorded under.
+	 */
+	public static final String IN_MEMORY = "in-memory data";
+	
+	private final ConcurrentHashMap<String, GdalDatasetMetrics> datasets;
+	
+	/**
+	 * Create an empty metrics registry.
+	 */
+	public GdalMetrics() {
+		
+		this.datasets = new ConcurrentHashMap<>();
+	}
+	
+	/**
+	 * Returns the metrics of the named dataset, creating them if needed.
+	 * Reads through temporary /vsimem/ files are recorded under the name
+	 * the caller knows them by instead: {@link #IN_MEMORY} for in-memory
+	 * data, "mosaic of [inputs]" for mosaics and "warp of filename" for
+	 * warped reads.
+	 * 
+	 * @param name The gdal name of the file that was read
+	 */
+	public GdalDatasetMetrics dataset(String name) {
+		
+		return datasets.computeIfAbsent(name, k -> new GdalDatasetMetrics(k));
+	}
+	
+	/**
+	 * Returns a read only view of the metrics of every dataset read so far.
+	 */
+	public Map<String, GdalDatasetMetrics> datasets() {
+		
+		return Collections.unmodifiableMap(datasets);
+	}
+	
+	/**
+	 * Forget the metrics of one dataset. Long running programs that read
+	 * many distinct files can use this to keep the registry bounded.
+	 * 
+	 * @param name
+	 * @return The metrics that were forgotten or null if there were none
+	 */
+	public GdalDatasetMetrics remove(String name) {
+		
+		return datasets.remove(name);
+	}
+	
+	/**
+	 * Forget all the metrics recorded so far.
+	 */
+	public void clear() {
+		
+		datasets.clear();
+	}
+	
+	@Override
+	public String toString() {
+		
+		StringBuilder sb = new StringBuilder();
+		
+		for (GdalDatasetMetrics m : datasets.values()) {
+			
+			sb.append(m.toString());
+			
+			sb.append('\n');
+		}
+		
+		return sb.toString();
+	}
+}
@@ -0,0 +1,47 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+/**
+ * Receives progress reports while data is read. Pass one to
+ * {@link GdalReadOptions#setProgressListener(GdalProgressListener)}.
+ * Reports are made after each strip of a band or row of a multidim array.
+ * They come from the reading thread; reads that run at once (such as the
+ * files of a time series) may call a shared listener concurrently.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public interface GdalProgressListener {
+
+	/**
+	 * Called as the elements of a band or array are read.
+	 * 
+	 * @param filename The gdal name of the file being read
+	 * @param name The band (such as "band-2") or array being read
+	 * @param done The number of elements of it read so far
+	 * @param total The number of elements it has
+	 */
+	void progress(String filename, String name, long done, long total);
+}
@@ -0,0 +1,384 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+/**
+ * Options that control how {@link Gdal} reads data. A default constructed
+ * options object reads data exactly as the single argument readAllDatasets()
+ * calls do.
+ *
+ * @author Barry DeZonia
+ *
+ */
+public class GdalReadOptions {
+
+	private boolean calibrated;
+	
+	private boolean readMasks;
+	
+	private GdalMetrics metrics;
+	
+	private boolean remoteOptimized;
+	
+	private long vsiCacheSize;
+	
+	private int remoteThreads;
+	
+	private GdalTileCache tileCache;
+	
+	private boolean nativeOrientation;
+	
+	private boolean nativeAxisOrder;
+	
+	private GdalCancellation cancellation;
+	
+	private GdalProgressListener progressListener;
+	
+	private GdalMemoryBudget memoryBudget;
+
+	/**
+	 * Create a set of read options with all the default values.
+	 */
+	public GdalReadOptions() {
+
+		this.calibrated = false;
+		
+		this.readMasks = false;
+		
+		this.metrics = null;
+		
+		this.remoteOptimized = false;
+		
+		this.vsiCacheSize = 0;
+		
+		this.remoteThreads = 0;
+		
+		this.tileCache = null;
+		
+		this.nativeOrientation = false;
+		
+		this.nativeAxisOrder = false;
+		
+		this.cancellation = null;
+		
+		this.progressListener = null;
+		
+		this.memoryBudget = null;
+	}
+
+	/**
+	 * When calibrated is true real valued data is returned as Float32 or
+	 * Float64 values that have had the gdal value scale and offset applied.
+	 * Values that match the nodata value of a band or array are returned
+	 * as NaN. The unscaling happens in the same pass as the read. Complex
+	 * data is never calibrated.
+	 *
+	 * @param calibrated
+	 * @return this options object
+	 */
+	public GdalReadOptions setCalibrated(boolean calibrated) {
+
+		this.calibrated = calibrated;
+
+		return this;
+	}
+
+	/**
+	 * Returns true if calibrated reads have been requested.
+	 */
+	public boolean calibrated() {
+
+		return calibrated;
+	}
+
+	/**
+	 * When readMasks is true the gdal mask band of each banded dataset is
+	 * read alongside the data, row for row, and returned as an additional
+	 * UnsignedInt8 dataset (0 = invalid, 255 = valid) named after its band
+	 * group, such as "mask-band-1,2,3". Bands that gdal reports as all
+	 * valid do not get a mask. Bands that share a per-dataset mask get a
+	 * single 2-d mask.
+	 *
+	 * @param readMasks
+	 * @return this options object
+	 */
+	public GdalReadOptions setReadMasks(boolean readMasks) {
+
+		this.readMasks = readMasks;
+
+		return this;
+	}
+
+	/**
+	 * Returns true if mask band reads have been requested.
+	 */
+	public boolean readMasks() {
+
+		return readMasks;
+	}
+
+	/**
+	 * Record read timings and counts into the given registry. Pass null
+	 * (the default) to turn metric collection off.
+	 *
+	 * @param metrics
+	 * @return this options object
+	 */
+	public GdalReadOptions setMetrics(GdalMetrics metrics) {
+
+		this.metrics = metrics;
+
+		return this;
+	}
+
+	/**
+	 * Returns the metrics registry reads record into or null if none.
+	 */
+	public GdalMetrics metrics() {
+
+		return metrics;
+	}
+
+	/**
+	 * When remoteOptimized is true reads of remote (/vsicurl/ and other
+	 * network) files tell gdal about each upcoming block aligned strip
+	 * with AdviseRead() so adjacent byte ranges are merged into single
+	 * requests, and gdal is configured to merge consecutive ranges, use
+	 * http multiplexing and to not list remote directories on open.
+	 *
+	 * @param remoteOptimized
+	 * @return this options object
+	 */
+	public GdalReadOptions setRemoteOptimized(boolean remoteOptimized) {
+
+		this.remoteOptimized = remoteOptimized;
+
+		return this;
+	}
+
+	/**
+	 * Returns true if remote read tuning has been requested.
+	 */
+	public boolean remoteOptimized() {
+
+		return remoteOptimized;
+	}
+
+	/**
+	 * Set the size in bytes of the gdal VSI read cache of each file handle
+	 * remote optimized reads open. Zero (the default) leaves gdal's setting
+	 * alone. The setting applies only to reads made with these options.
+	 *
+	 * @param bytes
+	 * @return this options object
+	 */
+	public GdalReadOptions setVsiCacheSize(long bytes) {
+
+		if (bytes < 0)
+			throw new IllegalArgumentException("vsi cache size cannot be negative");
+
+		this.vsiCacheSize = bytes;
+
+		return this;
+	}
+
+	/**
+	 * Returns the requested VSI cache size in bytes (0 if unset).
+	 */
+	public long vsiCacheSize() {
+
+		return vsiCacheSize;
+	}
+
+	/**
+	 * Set the number of threads gdal may use to fetch and decode remote
+	 * blocks in parallel during remote optimized reads. By default the
+	 * thread count is not set and gdal's own configuration applies.
+	 *
+	 * @param threads
+	 * @return this options object
+	 */
+	public GdalReadOptions setRemoteThreads(int threads) {
+
+		if (threads < 1)
+			throw new IllegalArgumentException("remote thread count must be at least 1");
+
+		this.remoteThreads = threads;
+
+		return this;
+	}
+
+	/**
+	 * Returns the number of threads remote reads may use or 0 if it was
+	 * never set.
+	 */
+	public int remoteThreads() {
+
+		return remoteThreads;
+	}
+
+	/**
+	 * Route reads through a cache of decoded tiles. Reads that share a
+	 * cache reuse each other's decoded tiles. Use GdalTileCache.shared()
+	 * for the process wide cache. Pass null (the default) to not cache.
+	 *
+	 * @param cache
+	 * @return this options object
+	 */
+	public GdalReadOptions setTileCache(GdalTileCache cache) {
+
+		this.tileCache = cache;
+
+		return this;
+	}
+
+	/**
+	 * Returns the tile cache reads use or null if none.
+	 */
+	public GdalTileCache tileCache() {
+
+		return tileCache;
+	}
+
+	/**
+	 * By default multidim arrays have their Y axis (the second fastest
+	 * gdal axis) flipped so the first row read from the file becomes the
+	 * last row of the dataset. When nativeOrientation is true rows are kept
+	 * in file order. Either way the coordinate space maps each row to its
+	 * true coordinate (a flipped axis gets a negated scale). Banded data is
+	 * always read in file row order.
+	 *
+	 * @param nativeOrientation
+	 * @return this options object
+	 */
+	public GdalReadOptions setNativeOrientation(boolean nativeOrientation) {
+
+		this.nativeOrientation = nativeOrientation;
+
+		return this;
+	}
+
+	/**
+	 * Returns true if rows are kept in file order.
+	 */
+	public boolean nativeOrientation() {
+
+		return nativeOrientation;
+	}
+
+	/**
+	 * By default the axes of a multidim array are reversed so that zorbage
+	 * axis 0 is gdal's fastest varying axis. That order matches zorbage's
+	 * storage layout and lets values be written sequentially. When
+	 * nativeAxisOrder is true the dataset's axes are in gdal's order
+	 * (slowest varying first); values are then written with a stride.
+	 *
+	 * @param nativeAxisOrder
+	 * @return this options object
+	 */
+	public GdalReadOptions setNativeAxisOrder(boolean nativeAxisOrder) {
+
+		this.nativeAxisOrder = nativeAxisOrder;
+
+		return this;
+	}
+
+	/**
+	 * Returns true if multidim axes are kept in gdal's order.
+	 */
+	public boolean nativeAxisOrder() {
+
+		return nativeAxisOrder;
+	}
+
+	/**
+	 * Stop reads early when the given token is cancelled or its deadline
+	 * passes. Such reads throw a CancellationException. Reads also stop
+	 * when their thread is interrupted. Pass null (the default) to only
+	 * stop on interrupts.
+	 *
+	 * @param cancellation
+	 * @return this options object
+	 */
+	public GdalReadOptions setCancellation(GdalCancellation cancellation) {
+
+		this.cancellation = cancellation;
+
+		return this;
+	}
+
+	/**
+	 * Returns the cancellation token reads check or null if none.
+	 */
+	public GdalCancellation cancellation() {
+
+		return cancellation;
+	}
+
+	/**
+	 * Report how many elements of each band or array have been read as
+	 * reads progress. Pass null (the default) to not report progress.
+	 *
+	 * @param listener
+	 * @return this options object
+	 */
+	public GdalReadOptions setProgressListener(GdalProgressListener listener) {
+
+		this.progressListener = listener;
+
+		return this;
+	}
+
+	/**
+	 * Returns the listener progress is reported to or null if none.
+	 */
+	public GdalProgressListener progressListener() {
+
+		return progressListener;
+	}
+
+	/**
+	 * Charge the datasets reads allocate to a memory budget. Datasets that
+	 * do not fit are rejected, downsampled, or spilled to file backed
+	 * storage as the budget's policy says. Share one budget between reads
+	 * to bound them all together. Pass null (the default) for no limit.
+	 *
+	 * @param budget
+	 * @return this options object
+	 */
+	public GdalReadOptions setMemoryBudget(GdalMemoryBudget budget) {
+
+		this.memoryBudget = budget;
+
+		return this;
+	}
+
+	/**
+	 * Returns the memory budget reads are charged to or null if none.
+	 */
+	public GdalMemoryBudget memoryBudget() {
+
+		return memoryBudget;
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import java.util.Collections;
+import java.util.List;
+
+import nom.bdezonia.zorbage.misc.DataBundle;
+
+/**
+ * The outcome of {@link Gdal#read(String, GdalReadOptions)}: the datasets
+ * that were read and a description of any data that had to be skipped.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public class GdalReadResult {
+
+	private final DataBundle data;
+	
+	private final List<GdalSkippedData> skipped;
+	
+	private final GdalDatasetMetrics metrics;
+	
+	GdalReadResult(DataBundle data, List<GdalSkippedData> skipped, GdalDatasetMetrics metrics) {
+		
+		this.data = data;
+		
+		this.skipped = Collections.unmodifiableList(skipped);
+		
+		this.metrics = metrics;
+	}
+	
+	/**
+	 * The datasets that were read.
+	 */
+	public DataBundle data() {
+		
+		return data;
+	}
+	
+	/**
+	 * The data that could not be read (empty when everything was read).
+	 */
+	public List<GdalSkippedData> skipped() {
+		
+		return skipped;
+	}
+	
+	/**
+	 * The timings and counts of this read call alone, or null when the
+	 * read's options had no metrics registry. The same counts were also
+	 * added to the registry's aggregate record for the file.
+	 */
+	public GdalDatasetMetrics metrics() {
+		
+		return metrics;
+	}
+}
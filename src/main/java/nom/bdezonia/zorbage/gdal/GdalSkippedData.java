@@ -0,0 +1,92 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+/**
+ * Describes data in a file that a read could not turn into a zorbage
+ * dataset (for instance string valued arrays or data types zorbage has
+ * no equivalent for).
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public class GdalSkippedData {
+
+	private final String filename;
+	
+	private final String name;
+	
+	private final String dataType;
+	
+	private final String reason;
+	
+	GdalSkippedData(String filename, String name, String dataType, String reason) {
+		
+		this.filename = filename;
+		
+		this.name = name;
+		
+		this.dataType = dataType;
+		
+		this.reason = reason;
+	}
+	
+	/**
+	 * The gdal name of the file (or subdataset) holding the data.
+	 */
+	public String filename() {
+		
+		return filename;
+	}
+	
+	/**
+	 * The full name of the array or the bands ("band-1,2,3") skipped.
+	 */
+	public String name() {
+		
+		return name;
+	}
+	
+	/**
+	 * The gdal name of the data type.
+	 */
+	public String dataType() {
+		
+		return dataType;
+	}
+	
+	/**
+	 * Why the data was skipped.
+	 */
+	public String reason() {
+		
+		return reason;
+	}
+	
+	@Override
+	public String toString() {
+		
+		return filename + " " + name + " (" + dataType + "): " + reason;
+	}
+}
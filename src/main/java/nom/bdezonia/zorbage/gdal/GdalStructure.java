@@ -0,0 +1,153 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The structure of a data file as gdal sees it: its subdatasets and the
+ * shape, type, value scaling, and units of each of its arrays (or bands).
+ * No data values are part of a structure. See {@link Gdal#describe(String)}.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public class GdalStructure {
+
+	private final String filename;
+	
+	private final List<String> subdatasets;
+	
+	private final List<ArrayInfo> arrays;
+	
+	GdalStructure(String filename, List<String> subdatasets, List<ArrayInfo> arrays) {
+		
+		this.filename = filename;
+		
+		this.subdatasets = Collections.unmodifiableList(subdatasets);
+		
+		this.arrays = Collections.unmodifiableList(arrays);
+	}
+	
+	/**
+	 * The gdal name of the file.
+	 */
+	public String filename() {
+		
+		return filename;
+	}
+	
+	/**
+	 * The gdal names of the subdatasets of the file (often empty).
+	 */
+	public List<String> subdatasets() {
+		
+		return subdatasets;
+	}
+	
+	/**
+	 * The multidim arrays of the file or, for classic raster files, its bands.
+	 */
+	public List<ArrayInfo> arrays() {
+		
+		return arrays;
+	}
+	
+	/**
+	 * The structure of one multidim array or raster band.
+	 */
+	public static class ArrayInfo {
+		
+		private final String name;
+		
+		private final long[] dims;
+		
+		private final int dataType;
+		
+		private final Double scale;
+		
+		private final Double offset;
+		
+		private final String unit;
+		
+		ArrayInfo(String name, long[] dims, int dataType, Double scale, Double offset, String unit) {
+			
+			this.name = name;
+			this.dims = dims.clone();
+			this.dataType = dataType;
+			this.scale = scale;
+			this.offset = offset;
+			this.unit = (unit == null) ? "" : unit;
+		}
+		
+		/**
+		 * The array name (for bands "band-N" where N is the gdal band number).
+		 */
+		public String name() {
+			
+			return name;
+		}
+		
+		/**
+		 * The dimensions in gdal order (for bands: x size then y size).
+		 */
+		public long[] dims() {
+			
+			return dims.clone();
+		}
+		
+		/**
+		 * The gdal data type code of the values.
+		 */
+		public int dataType() {
+			
+			return dataType;
+		}
+		
+		/**
+		 * The value scale or null if none is defined.
+		 */
+		public Double scale() {
+			
+			return scale;
+		}
+		
+		/**
+		 * The value offset or null if none is defined.
+		 */
+		public Double offset() {
+			
+			return offset;
+		}
+		
+		/**
+		 * The value unit (empty if none is defined).
+		 */
+		public String unit() {
+			
+			return unit;
+		}
+	}
+}
@@ -0,0 +1,392 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.gdal.gdal.StatBuf;
+import org.gdal.gdal.gdal;
+
+/**
+ * A size bounded cache of decoded tiles (banded strips and multidim array
+ * chunks) that is shared across reads and threads. Pass one to
+ * {@link GdalReadOptions#setTileCache(GdalTileCache)} to use it. Reads of
+ * overlapping data then reuse tiles that an earlier read already decoded.
+ * <p>
+ * The cache is split into independently locked segments and each segment
+ * evicts its least recently used tiles first. Tiles are keyed by file,
+ * band or array, overview level, and tile position. The key also holds the
+ * size and modification time gdal reports for the file (local, /vsimem/,
+ * /vsicurl/, /vsis3/ and the other /vsi file systems alike) so a tile is
+ * never served after its file has changed. Names gdal cannot stat (such
+ * as driver specific subdataset names) are not validated this way; call
+ * {@link #invalidate(String)} after such a file changes.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public class GdalTileCache {
+
+	private static final int SEGMENTS = 16;
+	
+	private static final long DEFAULT_SHARED_BYTES = 256L * 1024 * 1024;
+	
+	private static volatile GdalTileCache shared = null;
+	
+	private final Segment[] segments;
+	
+	private final LongAdder hits = new LongAdder();
+	
+	private final LongAdder misses = new LongAdder();
+	
+	/**
+	 * Returns the process wide tile cache (256 MB) creating it if needed.
+	 */
+	public static GdalTileCache shared() {
+		
+		GdalTileCache cache = shared;
+		
+		if (cache == null) {
+			
+			synchronized (GdalTileCache.class) {
+				
+				cache = shared;
+				
+				if (cache == null) {
+					
+					cache = new GdalTileCache(DEFAULT_SHARED_BYTES);
+					
+					shared = cache;
+				}
+			}
+		}
+		
+		return cache;
+	}
+	
+	/**
+	 * Create a tile cache that holds at most the given number of bytes of
+	 * decoded data.
+	 * 
+	 * @param maxBytes
+	 */
+	public GdalTileCache(long maxBytes) {
+		
+		this(maxBytes, SEGMENTS);
+	}
+	
+	/**
+	 * Create a tile cache split into the given number of segments. Tests
+	 * use one segment to make the eviction order predictable.
+	 */
+	GdalTileCache(long maxBytes, int segmentCount) {
+		
+		if (maxBytes <= 0)
+			throw new IllegalArgumentException("tile cache size must be positive");
+		
+		if (segmentCount <= 0)
+			throw new IllegalArgumentException("tile cache needs at least one segment");
+		
+		this.segments = new Segment[segmentCount];
+		
+		for (int i = 0; i < segmentCount; i++) {
+			
+			segments[i] = new Segment(Math.max(1, maxBytes / segmentCount));
+		}
+	}
+	
+	/**
+	 * The number of lookups that found a tile.
+	 */
+	public long hits() {
+		
+		return hits.sum();
+	}
+	
+	/**
+	 * The number of lookups that did not find a tile.
+	 */
+	public long misses() {
+		
+		return misses.sum();
+	}
+	
+	/**
+	 * The fraction of lookups that found a tile (0 when nothing was looked up).
+	 */
+	public double hitRate() {
+		
+		long h = hits();
+		
+		long total = h + misses();
+		
+		return (total == 0) ? 0 : ((double) h) / total;
+	}
+	
+	/**
+	 * The number of bytes of decoded data currently held.
+	 */
+	public long size() {
+		
+		long total = 0;
+		
+		for (Segment segment : segments) {
+			
+			synchronized (segment) {
+				
+				total += segment.bytes;
+			}
+		}
+		
+		return total;
+	}
+	
+	/**
+	 * Drop every tile of the given file.
+	 * 
+	 * @param filename The gdal name of the file
+	 */
+	public void invalidate(String filename) {
+		
+		for (Segment segment : segments) {
+			
+			synchronized (segment) {
+				
+				Iterator<Map.Entry<Key, Object>> iter = segment.map.entrySet().iterator();
+				
+				while (iter.hasNext()) {
+					
+					Map.Entry<Key, Object> entry = iter.next();
+					
+					if (entry.getKey().file.equals(filename)) {
+						
+						segment.bytes -= sizeOf(entry.getValue());
+						
+						iter.remove();
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Drop every tile.
+	 */
+	public void clear() {
+		
+		for (Segment segment : segments) {
+			
+			synchronized (segment) {
+				
+				segment.map.clear();
+				
+				segment.bytes = 0;
+			}
+		}
+	}
+	
+	/**
+	 * Returns a stamp that changes whenever a file's size or modification
+	 * time changes. gdal's VSIStatL() reports both for local files and for
+	 * files on its virtual file systems (for remote files from the server's
+	 * headers). Names gdal cannot stat get stamp 0.
+	 */
+	static long fileStamp(String filename) {
+		
+		StatBuf stat = new StatBuf();
+		
+		if (gdal.VSIStatL(filename, stat) != 0)
+			return 0;
+		
+		return stat.getSize() * 31 + stat.getMtime();
+	}
+	
+	/**
+	 * Returns the cached tile or null. Callers must not modify the returned
+	 * array.
+	 */
+	Object get(Key key) {
+		
+		Segment segment = segmentFor(key);
+		
+		Object tile;
+		
+		synchronized (segment) {
+			
+			tile = segment.map.get(key);
+		}
+		
+		if (tile == null)
+			misses.increment();
+		else
+			hits.increment();
+		
+		return tile;
+	}
+	
+	/**
+	 * Store a tile. The cache takes ownership of the array.
+	 */
+	void put(Key key, Object tile) {
+		
+		long tileBytes = sizeOf(tile);
+		
+		Segment segment = segmentFor(key);
+		
+		synchronized (segment) {
+			
+			if (tileBytes > segment.capacity)
+				return;
+			
+			Object old = segment.map.put(key, tile);
+			
+			if (old != null)
+				segment.bytes -= sizeOf(old);
+			
+			segment.bytes += tileBytes;
+			
+			Iterator<Object> iter = segment.map.values().iterator();
+			
+			while (segment.bytes > segment.capacity && iter.hasNext()) {
+				
+				segment.bytes -= sizeOf(iter.next());
+				
+				iter.remove();
+			}
+		}
+	}
+	
+	private Segment segmentFor(Key key) {
+		
+		int h = key.hashCode();
+		
+		h ^= (h >>> 16);
+		
+		return segments[(h & 0x7fffffff) % segments.length];
+	}
+	
+	private static long sizeOf(Object array) {
+		
+		if (array instanceof byte[]) return ((byte[]) array).length;
+		if (array instanceof short[]) return 2L * ((short[]) array).length;
+		if (array instanceof int[]) return 4L * ((int[]) array).length;
+		if (array instanceof long[]) return 8L * ((long[]) array).length;
+		if (array instanceof float[]) return 4L * ((float[]) array).length;
+		if (array instanceof double[]) return 8L * ((double[]) array).length;
+		
+		throw new IllegalArgumentException("tile cache only holds primitive arrays");
+	}
+	
+	private static class Segment {
+		
+		final long capacity;
+		
+		// access ordered: iteration starts at the least recently used tile
+		
+		final LinkedHashMap<Key, Object> map = new LinkedHashMap<>(64, 0.75f, true);
+		
+		long bytes = 0;
+		
+		Segment(long capacity) {
+			
+			this.capacity = capacity;
+		}
+	}
+	
+	/**
+	 * Identifies one decoded tile.
+	 */
+	static final class Key {
+		
+		final String file;
+		
+		final long fileStamp;
+		
+		final String component;
+		
+		final int overview;
+		
+		final long index;
+		
+		final long length;
+		
+		private final int hash;
+		
+		/**
+		 * @param file The gdal name of the file
+		 * @param fileStamp The file's stamp from fileStamp()
+		 * @param component The band or array (and value layout) the tile belongs to
+		 * @param overview The overview level (0 = full resolution)
+		 * @param index The position of the tile within the component
+		 * @param length The extent of the tile (rows, elements, ...)
+		 */
+		Key(String file, long fileStamp, String component, int overview, long index, long length) {
+			
+			this.file = file;
+			this.fileStamp = fileStamp;
+			this.component = component;
+			this.overview = overview;
+			this.index = index;
+			this.length = length;
+			
+			int h = file.hashCode();
+			h = 31 * h + Long.hashCode(fileStamp);
+			h = 31 * h + component.hashCode();
+			h = 31 * h + overview;
+			h = 31 * h + Long.hashCode(index);
+			h = 31 * h + Long.hashCode(length);
+			
+			this.hash = h;
+		}
+		
+		@Override
+		public int hashCode() {
+			
+			return hash;
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			
+			if (this == o)
+				return true;
+			
+			if (!(o instanceof Key))
+				return false;
+			
+			Key other = (Key) o;
+			
+			return hash == other.hash &&
+					fileStamp == other.fileStamp &&
+					overview == other.overview &&
+					index == other.index &&
+					length == other.length &&
+					file.equals(other.file) &&
+					component.equals(other.component);
+		}
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import java.util.Vector;
+
+/**
+ * The grid that {@link Gdal#readWarped(String, GdalWarpTarget, GdalReadOptions)}
+ * reprojects and resamples data onto: a coordinate reference system plus
+ * an optional extent, resolution, and resampling method. Any of the grid
+ * values left unset are chosen by gdal.
+ *
+ * @author Barry DeZonia
+ *
+ */
+public class GdalWarpTarget {
+
+	private final String crs;
+	
+	private double[] extent;
+	
+	private double[] resolution;
+	
+	private String resampling;
+	
+	/**
+	 * Create a target in the given coordinate reference system.
+	 * 
+	 * @param crs Any CRS definition gdal accepts (such as "EPSG:4326" or WKT)
+	 */
+	public GdalWarpTarget(String crs) {
+		
+		if (crs == null || crs.length() == 0)
+			throw new IllegalArgumentException("a target crs must be specified");
+		
+		this.crs = crs;
+		
+		this.extent = null;
+		
+		this.resolution = null;
+		
+		this.resampling = "near";
+	}
+	
+	/**
+	 * Set the extent of the target grid in target CRS units.
+	 * 
+	 * @return this target
+	 */
+	public GdalWarpTarget setExtent(double minX, double minY, double maxX, double maxY) {
+		
+		if (minX >= maxX || minY >= maxY)
+			throw new IllegalArgumentException("extent minimums must be less than maximums");
+		
+		this.extent = new double[] {minX, minY, maxX, maxY};
+		
+		return this;
+	}
+	
+	/**
+	 * Set the size of a target pixel in target CRS units.
+	 * 
+	 * @return this target
+	 */
+	public GdalWarpTarget setResolution(double xRes, double yRes) {
+		
+		if (xRes <= 0 || yRes <= 0)
+			throw new IllegalArgumentException("resolutions must be positive");
+		
+		this.resolution = new double[] {xRes, yRes};
+		
+		return this;
+	}
+	
+	/**
+	 * Set the gdal resampling method (near, bilinear, cubic, cubicspline,
+	 * lanczos, average, mode, ...). The default is near.
+	 * 
+	 * @return this target
+	 */
+	public GdalWarpTarget setResampling(String method) {
+		
+		if (method == null || method.length() == 0)
+			throw new IllegalArgumentException("a resampling method must be specified");
+		
+		this.resampling = method;
+		
+		return this;
+	}
+	
+	/**
+	 * Returns the target coordinate reference system.
+	 */
+	public String crs() {
+		
+		return crs;
+	}
+	
+	/**
+	 * Returns the target extent (minX, minY, maxX, maxY) or null if unset.
+	 */
+	public double[] extent() {
+		
+		return (extent == null) ? null : extent.clone();
+	}
+	
+	/**
+	 * Returns the target resolution (x, y) or null if unset.
+	 */
+	public double[] resolution() {
+		
+		return (resolution == null) ? null : resolution.clone();
+	}
+	
+	/**
+	 * Returns the resampling method.
+	 */
+	public String resampling() {
+		
+		return resampling;
+	}
+	
+	// gdalwarp style arguments that produce a warped VRT of this grid
+	
+	Vector<String> warpArguments() {
+		
+		Vector<String> args = new Vector<>();
+		
+		args.add("-of");
+		args.add("VRT");
+		
+		args.add("-t_srs");
+		args.add(crs);
+		
+		if (extent != null) {
+			
+			args.add("-te");
+			
+			for (double v : extent) {
+				
+				args.add(Double.toString(v));
+			}
+		}
+		
+		if (resolution != null) {
+			
+			args.add("-tr");
+			args.add(Double.toString(resolution[0]));
+			args.add(Double.toString(resolution[1]));
+		}
+		
+		args.add("-r");
+		args.add(resampling);
+		
+		args.add("-multi");
+		
+		args.add("-wo");
+		args.add("NUM_THREADS=ALL_CPUS");
+		
+		return args;
+	}
+}
@@ -0,0 +1,321 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import nom.bdezonia.zorbage.algebra.Allocatable;
+import nom.bdezonia.zorbage.data.DimensionedDataSource;
+import nom.bdezonia.zorbage.data.DimensionedStorage;
+import nom.bdezonia.zorbage.misc.DataBundle;
+import nom.bdezonia.zorbage.storage.StorageConstruction;
+
+/**
+ * The state of one read call that the readers share: the options the
+ * caller passed, the metrics (if any) of the file being read, the tile
+ * cache (if any) reads go through, a list of data that was skipped,
+ * where to check for cancellation and report progress, and the memory
+ * budget (if any) datasets are allocated from.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+class ReadContext {
+
+	final GdalReadOptions options;
+	
+	final GdalDatasetMetrics metrics;
+	
+	final String filename;
+	
+	final GdalTileCache cache;
+	
+	final List<GdalSkippedData> skipped;
+	
+	private final GdalCancellation cancellation;
+	
+	private final GdalProgressListener listener;
+	
+	private final GdalMemoryBudget budget;
+	
+	private final long fileStamp;
+	
+	private boolean spilled;
+	
+	// the datasets this context charged to the memory budget
+	
+	private final List<DimensionedDataSource<?>> charged;
+	
+	ReadContext(GdalReadOptions options, String filename) {
+		
+		this(options, filename, new ArrayList<GdalSkippedData>(), GdalDatasetMetrics.forCall(options, filename));
+	}
+	
+	/**
+	 * metrics is the record of the read call this context is part of (or
+	 * null). It is named for the source the caller knows, which differs
+	 * from filename when filename is a temporary /vsimem/ name.
+	 */
+	ReadContext(GdalReadOptions options, String filename, List<GdalSkippedData> skipped, GdalDatasetMetrics metrics) {
+		
+		this.options = options;
+		
+		this.skipped = skipped;
+		
+		this.filename = filename;
+		
+		this.metrics = metrics;
+		
+		this.cache = options.tileCache();
+		
+		this.fileStamp = (cache == null || VsiNames.isTemporary(filename)) ? 0 : GdalTileCache.fileStamp(filename);
+		
+		this.cancellation = options.cancellation();
+		
+		this.listener = options.progressListener();
+		
+		this.budget = options.memoryBudget();
+		
+		this.charged = new ArrayList<>();
+	}
+	
+	/**
+	 * Throws a CancellationException if the read has been cancelled, its
+	 * deadline has passed, or its thread has been interrupted.
+	 */
+	void checkCancelled() {
+		
+		if (cancellation != null)
+			cancellation.check(filename);
+		
+		if (Thread.currentThread().isInterrupted())
+			throw new CancellationException("read of "+filename+" was interrupted");
+	}
+	
+	/**
+	 * Report that done of the total elements of a band or array are read.
+	 */
+	void progress(String name, long done, long total) {
+		
+		if (listener != null)
+			listener.progress(filename, name, done, total);
+	}
+	
+	/**
+	 * Returns the cache key of a tile of the file being read or null when
+	 * the tile should not be cached.
+	 */
+	GdalTileCache.Key tileKey(String component, long index, long length) {
+		
+		return tileKey(component, 0, index, length);
+	}
+	
+	/**
+	 * Returns the cache key of a tile of an overview level (0 = full
+	 * resolution) of the file being read or null when no tile cache is in
+	 * use. Temporary /vsimem/ files get no keys: their names are never
+	 * reused so their tiles could never be hit again.
+	 */
+	GdalTileCache.Key tileKey(String component, int level, long index, long length) {
+		
+		if (cache == null || VsiNames.isTemporary(filename))
+			return null;
+		
+		return new GdalTileCache.Key(filename, fileStamp, component, level, index, length);
+	}
+	
+	/**
+	 * Returns the cached tile for the key or null if there is none.
+	 */
+	Object cachedTile(GdalTileCache.Key key) {
+		
+		if (key == null)
+			return null;
+		
+		Object tile = cache.get(key);
+		
+		if (metrics != null) {
+			
+			if (tile == null)
+				metrics.recordCacheMiss();
+			else
+				metrics.recordCacheHit();
+		}
+		
+		return tile;
+	}
+	
+	/**
+	 * Note that some data of the file being read could not be read.
+	 */
+	void skip(String name, String dataType, String reason) {
+		
+		skipped.add(new GdalSkippedData(filename, name, dataType, reason));
+	}
+	
+	void cacheTile(GdalTileCache.Key key, Object tile) {
+		
+		if (key != null)
+			cache.put(key, tile);
+	}
+	
+	/**
+	 * Returns the number of bytes a dataset of the given dimensions needs
+	 * when each element takes the given number of bits.
+	 */
+	static long bytesFor(long[] dims, int bits) {
+		
+		long elems = 1;
+		
+		for (long d : dims) {
+			
+			elems *= d;
+		}
+		
+		return (elems * bits + 7) / 8;
+	}
+	
+	/**
+	 * Returns true if a dataset of the given size should be read at a
+	 * lower resolution to fit the memory budget.
+	 */
+	boolean mustDownsample(long bytes) {
+		
+		return budget != null &&
+				budget.policy() == GdalMemoryBudget.Policy.DOWNSAMPLE &&
+				bytes > budget.available();
+	}
+	
+	/**
+	 * Returns true if a dataset of the given size fits the memory budget.
+	 */
+	boolean fits(long bytes) {
+		
+		return budget == null || bytes <= budget.available();
+	}
+	
+	/**
+	 * Returns true if the memory budget fails reads that do not fit. Such
+	 * reads check the needs of the whole file before allocating anything.
+	 */
+	boolean failsOverBudget() {
+		
+		return budget != null && budget.policy() == GdalMemoryBudget.Policy.FAIL;
+	}
+	
+	/**
+	 * Fails the read unless the given bytes fit the memory budget.
+	 */
+	void requireBudget(long bytes) {
+		
+		if (budget != null && bytes > budget.available())
+			throw new IllegalArgumentException("reading "+filename+" needs "+bytes+
+					" bytes but only "+budget.available()+" bytes of the memory budget remain");
+	}
+	
+	/**
+	 * Allocate a dataset, charging it to the memory budget. A dataset that
+	 * does not fit is spilled to file backed storage if the budget allows
+	 * it and otherwise the read fails before anything is allocated.
+	 */
+	<U extends Allocatable<U>> DimensionedDataSource<U> allocate(U type, long[] dims, int bits, String name) {
+		
+		if (budget == null)
+			return DimensionedStorage.allocate(type, dims);
+		
+		long bytes = bytesFor(dims, bits);
+		
+		if (budget.reserve(bytes)) {
+			
+			DimensionedDataSource<U> data;
+			
+			try {
+				
+				data = DimensionedStorage.allocate(type, dims);
+				
+			} catch (RuntimeException | Error e) {
+				
+				budget.unreserve(bytes);
+				
+				throw e;
+			}
+			
+			budget.track(data, bytes);
+			
+			charged.add(data);
+			
+			return data;
+		}
+		
+		if (budget.policy() == GdalMemoryBudget.Policy.SPILL) {
+			
+			spilled = true;
+			
+			return DimensionedStorage.allocate(StorageConstruction.MEM_VIRTUAL, type, dims);
+		}
+		
+		throw new IllegalArgumentException("reading "+name+" of "+filename+" needs "+bytes+
+				" bytes but only "+budget.available()+" bytes of the memory budget remain");
+	}
+	
+	/**
+	 * Give back to the memory budget the bytes of every dataset this
+	 * context charged to it and of every dataset in outputs (which may
+	 * hold the results of nested reads). Failed and cancelled reads call
+	 * this so their bytes are not held until the partly read datasets are
+	 * garbage collected.
+	 */
+	void releaseCharged(DataBundle outputs) {
+		
+		if (budget == null)
+			return;
+		
+		for (DimensionedDataSource<?> data : charged) {
+			
+			budget.release(data);
+		}
+		
+		charged.clear();
+		
+		if (outputs != null) {
+			
+			for (DimensionedDataSource<?> data : outputs.bundle()) {
+				
+				budget.release(data);
+			}
+		}
+	}
+	
+	/**
+	 * Returns true if this context spilled any dataset to file backed
+	 * storage. Such storage pages data in and out and is not safe to
+	 * write from more than one thread at a time.
+	 */
+	boolean spilled() {
+		
+		return spilled;
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.gdal.gdal.gdal;
+
+/**
+ * Applies gdal configuration settings that make reads of remote files
+ * cheaper for the duration of one read. The settings are thread local so
+ * concurrent reads with different options do not disturb each other. The
+ * previous values are restored by close().
+ * 
+ * @author Barry DeZonia
+ *
+ */
+class RemoteTuning implements AutoCloseable {
+
+	private final String[] keys;
+	
+	private final String[] previous;
+	
+	private static final String[] REMOTE_PREFIXES = new String[] {
+			"/vsicurl/",
+			"/vsicurl_streaming/",
+			"/vsis3/",
+			"/vsigs/",
+			"/vsiaz/",
+			"/vsiadls/",
+			"/vsioss/",
+			"/vsiswift/",
+			"/vsiwebhdfs/"
+		};
+	
+	/**
+	 * Returns true if the gdal name refers to a file reached over a network.
+	 */
+	static boolean isRemote(String gdalName) {
+		
+		for (String prefix : REMOTE_PREFIXES) {
+			
+			if (gdalName.startsWith(prefix))
+				return true;
+			
+			// chained names like /vsizip//vsicurl/http://...
+			
+			if (gdalName.startsWith("/vsi") && gdalName.contains("/" + prefix))
+				return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Returns null when the options do not ask for remote tuning.
+	 */
+	static RemoteTuning apply(GdalReadOptions options) {
+		
+		if (!options.remoteOptimized())
+			return null;
+		
+		List<String> keys = new ArrayList<>(Arrays.asList(
+				"GDAL_DISABLE_READDIR_ON_OPEN",
+				"GDAL_HTTP_MERGE_CONSECUTIVE_RANGES",
+				"GDAL_HTTP_MULTIRANGE",
+				"GDAL_HTTP_MULTIPLEX",
+				"CPL_VSIL_GZIP_WRITE_PROPERTIES"
+			));
+		
+		List<String> values = new ArrayList<>(Arrays.asList(
+				"EMPTY_DIR",
+				"YES",
+				"YES",
+				"YES",
+				"NO"  // never write .properties files next to remote .gz files
+			));
+		
+		// leave gdal's own thread count alone unless the caller chose one
+		
+		if (options.remoteThreads() > 0) {
+			
+			keys.add("GDAL_NUM_THREADS");
+			
+			values.add(Integer.toString(options.remoteThreads()));
+		}
+		
+		// gdal reads the cache settings whenever it opens a file handle so
+		//   thread local values size the caches of this read's handles only
+		
+		if (options.vsiCacheSize() > 0) {
+			
+			keys.add("VSI_CACHE");
+			
+			values.add("TRUE");
+			
+			keys.add("VSI_CACHE_SIZE");
+			
+			values.add(Long.toString(options.vsiCacheSize()));
+		}
+		
+		return new RemoteTuning(keys.toArray(new String[0]), values.toArray(new String[0]));
+	}
+	
+	private RemoteTuning(String[] keys, String[] values) {
+		
+		this.keys = keys;
+		
+		this.previous = new String[keys.length];
+		
+		for (int i = 0; i < keys.length; i++) {
+			
+			previous[i] = gdal.GetThreadLocalConfigOption(keys[i], null);
+			
+			gdal.SetThreadLocalConfigOption(keys[i], values[i]);
+		}
+	}
+	
+	@Override
+	public void close() {
+		
+		for (int i = 0; i < keys.length; i++) {
+			
+			gdal.SetThreadLocalConfigOption(keys[i], previous[i]);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import org.gdal.gdal.Band;
+import org.gdal.gdal.MDArray;
+
+import nom.bdezonia.zorbage.algebra.Allocatable;
+import nom.bdezonia.zorbage.data.DimensionedDataSource;
+import nom.bdezonia.zorbage.datasource.IndexedDataSource;
+import nom.bdezonia.zorbage.misc.DataBundle;
+
+/**
+ * A strategy for reading one gdal data type into one zorbage type. A
+ * reader knows the primitive array gdal fills, how to fill it from a band
+ * or a multidim array, and how to copy a whole run of values into zorbage
+ * storage in one tight loop. Each concrete reader is its own final class
+ * so its copy loop only ever sees one value type.
+ * <p>
+ * Readers are looked up by gdal data type in {@link TypeReaders}.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+abstract class TypeReader<U extends Allocatable<U>> {
+
+	// the number of primitive values gdal returns per element
+	
+	final int components;
+	
+	// the number of bits zorbage stores per element
+	
+	final int bits;
+	
+	TypeReader(int components, int bits) {
+		
+		this.components = components;
+		
+		this.bits = bits;
+	}
+	
+	/**
+	 * Returns a new value of the zorbage type this reader produces.
+	 */
+	abstract U construct();
+	
+	/**
+	 * Add a dataset this reader produced to a bundle.
+	 */
+	abstract void merge(DataBundle bundle, DimensionedDataSource<U> data);
+	
+	/**
+	 * Returns a primitive array large enough to hold count elements.
+	 */
+	abstract Object allocate(int count);
+	
+	/**
+	 * Read numRows whole rows of a band, starting at row, into values.
+	 */
+	abstract void readRaster(Band band, int row, int numRows, int cols, Object values);
+	
+	/**
+	 * Read a block of a multidim array into values.
+	 */
+	abstract boolean readArray(MDArray data, long[] start, long[] count, Object values);
+	
+	/**
+	 * Copy count elements from values into raw starting at index base and
+	 * stepping by stride. var is scratch space.
+	 */
+	abstract void transfer(Object values, int count, IndexedDataSource<U> raw, long base, long stride, U var);
+}
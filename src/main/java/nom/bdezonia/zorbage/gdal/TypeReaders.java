@@ -0,0 +1,1016 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.gdal.gdal.Band;
+import org.gdal.gdal.Dataset;
+import org.gdal.gdal.MDArray;
+import org.gdal.gdal.gdal;
+import org.gdal.gdalconst.gdalconst;
+
+import nom.bdezonia.zorbage.algebra.Allocatable;
+import nom.bdezonia.zorbage.algebra.G;
+import nom.bdezonia.zorbage.data.DimensionedDataSource;
+import nom.bdezonia.zorbage.datasource.IndexedDataSource;
+import nom.bdezonia.zorbage.misc.DataBundle;
+import nom.bdezonia.zorbage.type.complex.float32.ComplexFloat32Member;
+import nom.bdezonia.zorbage.type.complex.float64.ComplexFloat64Member;
+import nom.bdezonia.zorbage.type.gaussian.int16.GaussianInt16Member;
+import nom.bdezonia.zorbage.type.gaussian.int32.GaussianInt32Member;
+import nom.bdezonia.zorbage.type.integer.int1.UnsignedInt1Member;
+import nom.bdezonia.zorbage.type.integer.int2.UnsignedInt2Member;
+import nom.bdezonia.zorbage.type.integer.int4.UnsignedInt4Member;
+import nom.bdezonia.zorbage.type.integer.int16.SignedInt16Member;
+import nom.bdezonia.zorbage.type.integer.int16.UnsignedInt16Member;
+import nom.bdezonia.zorbage.type.integer.int32.SignedInt32Member;
+import nom.bdezonia.zorbage.type.integer.int32.UnsignedInt32Member;
+import nom.bdezonia.zorbage.type.integer.int64.SignedInt64Member;
+import nom.bdezonia.zorbage.type.integer.int64.UnsignedInt64Member;
+import nom.bdezonia.zorbage.type.integer.int8.SignedInt8Member;
+import nom.bdezonia.zorbage.type.integer.int8.UnsignedInt8Member;
+import nom.bdezonia.zorbage.type.real.float16.Float16Member;
+import nom.bdezonia.zorbage.type.real.float32.Float32Member;
+import nom.bdezonia.zorbage.type.real.float64.Float64Member;
+
+/**
+ * The registry of {@link TypeReader}s, keyed by gdal data type. The band
+ * and multidim readers find their reader here rather than testing each
+ * type in turn, so support for a new gdal type only needs a reader and a
+ * register() call.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+class TypeReaders {
+
+	private static final Map<Integer, TypeReader<?>> READERS = new ConcurrentHashMap<>();
+	
+	// Float16 is only known to newer gdal releases so its type code is
+	//   looked up by name (GDT_Unknown when gdal does not support it).
+	
+	static final int FLOAT16 = gdal.GetDataTypeByName("Float16");
+	
+	private static final TypeReader<UnsignedInt1Member> UINT1 = new UnsignedInt1Reader();
+	
+	private static final TypeReader<UnsignedInt2Member> UINT2 = new UnsignedInt2Reader();
+	
+	private static final TypeReader<UnsignedInt4Member> UINT4 = new UnsignedInt4Reader();
+	
+	private static final TypeReader<SignedInt8Member> INT8 = new SignedInt8Reader();
+	
+	static {
+		
+		register(gdalconst.GDT_Byte, new UnsignedInt8Reader());
+		register(gdalconst.GDT_Int8, INT8);
+		register(gdalconst.GDT_UInt16, new UnsignedInt16Reader());
+		register(gdalconst.GDT_Int16, new SignedInt16Reader());
+		register(gdalconst.GDT_UInt32, new UnsignedInt32Reader());
+		register(gdalconst.GDT_Int32, new SignedInt32Reader());
+		register(gdalconst.GDT_UInt64, new UnsignedInt64Reader());
+		register(gdalconst.GDT_Int64, new SignedInt64Reader());
+		register(gdalconst.GDT_Float32, new Float32Reader());
+		register(gdalconst.GDT_Float64, new Float64Reader());
+		register(gdalconst.GDT_CInt16, new GaussianInt16Reader());
+		register(gdalconst.GDT_CInt32, new GaussianInt32Reader());
+		register(gdalconst.GDT_CFloat32, new ComplexFloat32Reader());
+		register(gdalconst.GDT_CFloat64, new ComplexFloat64Reader());
+		
+		if (FLOAT16 != gdalconst.GDT_Unknown)
+			register(FLOAT16, new Float16Reader());
+	}
+	
+	private TypeReaders() { }
+	
+	/**
+	 * Make reader the reader of a gdal data type, replacing any earlier one.
+	 */
+	static void register(int gdalType, TypeReader<?> reader) {
+		
+		READERS.put(gdalType, reader);
+	}
+	
+	/**
+	 * Returns the reader of a gdal data type or null if it has none.
+	 */
+	static TypeReader<?> forType(int gdalType) {
+		
+		return READERS.get(gdalType);
+	}
+	
+	/**
+	 * Returns the reader of a group of bands that share one data type or
+	 * null if it has none. Byte bands can be stored more compactly (or as
+	 * signed values) depending upon their image structure metadata.
+	 */
+	static TypeReader<?> forBands(Dataset ds, int[] bands) {
+		
+		int type = ds.GetRasterBand(bands[0]).GetRasterDataType();
+		
+		if (type == gdalconst.GDT_Byte) {
+			
+			int bits = packedBits(ds, bands);
+			
+			if (bits == 1)
+				return UINT1;
+			
+			if (bits == 2)
+				return UINT2;
+			
+			if (bits == 4)
+				return UINT4;
+			
+			if (signedBytes(ds, bands))
+				return INT8;
+		}
+		
+		return forType(type);
+	}
+	
+	static boolean isFloat16(int type) {
+		
+		return type != gdalconst.GDT_Unknown && type == FLOAT16;
+	}
+	
+	// The number of bits (1, 2 or 4) that a group of byte bands can be
+	//   stored in given their NBITS image structure metadata, or 8 if the
+	//   bands need whole bytes. gdal unpacks sub byte values to one value
+	//   per byte as it reads; zorbage then stores them bit packed.
+	
+	private static int packedBits(Dataset ds, int[] bands) {
+		
+		int maxBits = 0;
+		
+		for (int b : bands) {
+			
+			String nbits = ds.GetRasterBand(b).GetMetadataItem("NBITS", "IMAGE_STRUCTURE");
+			
+			int bits = 8;
+			
+			if (nbits != null) {
+				
+				try {
+					
+					bits = Integer.parseInt(nbits.trim());
+					
+				} catch (NumberFormatException e) {
+					
+					bits = 8;
+				}
+			}
+			
+			maxBits = Math.max(maxBits, bits);
+		}
+		
+		if (maxBits == 1 || maxBits == 2 || maxBits == 4)
+			return maxBits;
+		
+		if (maxBits == 3)
+			return 4;
+		
+		return 8;
+	}
+	
+	// Older gdal versions report signed 8 bit data as bytes with a
+	//   PIXELTYPE of SIGNEDBYTE
+	
+	private static boolean signedBytes(Dataset ds, int[] bands) {
+		
+		for (int b : bands) {
+			
+			String pixelType = ds.GetRasterBand(b).GetMetadataItem("PIXELTYPE", "IMAGE_STRUCTURE");
+			
+			if (!"SIGNEDBYTE".equals(pixelType))
+				return false;
+		}
+		
+		return true;
+	}
+	
+	// readers whose values gdal delivers as bytes
+	
+	private static abstract class ByteReader<U extends Allocatable<U>>
+		extends TypeReader<U>
+	{
+		ByteReader(int components, int bits) {
+			
+			super(components, bits);
+		}
+		
+		@Override
+		Object allocate(int count) {
+			
+			return new byte[count * components];
+		}
+		
+		@Override
+		void readRaster(Band band, int row, int numRows, int cols, Object values) {
+			
+			band.ReadRaster(0, row, cols, numRows, cols, numRows, band.getDataType(), (byte[]) values, 0, 0);
+		}
+		
+		@Override
+		boolean readArray(MDArray data, long[] start, long[] count, Object values) {
+			
+			return data.Read(start, count, (byte[]) values);
+		}
+	}
+	
+	// readers whose values gdal delivers as shorts
+	
+	private static abstract class ShortReader<U extends Allocatable<U>>
+		extends TypeReader<U>
+	{
+		ShortReader(int components, int bits) {
+			
+			super(components, bits);
+		}
+		
+		@Override
+		Object allocate(int count) {
+			
+			return new short[count * components];
+		}
+		
+		@Override
+		void readRaster(Band band, int row, int numRows, int cols, Object values) {
+			
+			band.ReadRaster(0, row, cols, numRows, cols, numRows, band.getDataType(), (short[]) values, 0, 0);
+		}
+		
+		@Override
+		boolean readArray(MDArray data, long[] start, long[] count, Object values) {
+			
+			return data.Read(start, count, (short[]) values);
+		}
+	}
+	
+	// readers whose values gdal delivers as ints
+	
+	private static abstract class IntReader<U extends Allocatable<U>>
+		extends TypeReader<U>
+	{
+		IntReader(int components, int bits) {
+			
+			super(components, bits);
+		}
+		
+		@Override
+		Object allocate(int count) {
+			
+			return new int[count * components];
+		}
+		
+		@Override
+		void readRaster(Band band, int row, int numRows, int cols, Object values) {
+			
+			band.ReadRaster(0, row, cols, numRows, cols, numRows, band.getDataType(), (int[]) values, 0, 0);
+		}
+		
+		@Override
+		boolean readArray(MDArray data, long[] start, long[] count, Object values) {
+			
+			return data.Read(start, count, (int[]) values);
+		}
+	}
+	
+	// readers whose values gdal delivers as longs
+	
+	private static abstract class LongReader<U extends Allocatable<U>>
+		extends TypeReader<U>
+	{
+		LongReader(int components, int bits) {
+			
+			super(components, bits);
+		}
+		
+		@Override
+		Object allocate(int count) {
+			
+			return new long[count * components];
+		}
+		
+		@Override
+		void readRaster(Band band, int row, int numRows, int cols, Object values) {
+			
+			band.ReadRaster(0, row, cols, numRows, cols, numRows, band.getDataType(), (long[]) values, 0, 0);
+		}
+		
+		@Override
+		boolean readArray(MDArray data, long[] start, long[] count, Object values) {
+			
+			return data.Read(start, count, (long[]) values);
+		}
+	}
+	
+	// readers whose values gdal delivers as floats
+	
+	private static abstract class FloatReader<U extends Allocatable<U>>
+		extends TypeReader<U>
+	{
+		FloatReader(int components, int bits) {
+			
+			super(components, bits);
+		}
+		
+		@Override
+		Object allocate(int count) {
+			
+			return new float[count * components];
+		}
+		
+		@Override
+		void readRaster(Band band, int row, int numRows, int cols, Object values) {
+			
+			band.ReadRaster(0, row, cols, numRows, cols, numRows, band.getDataType(), (float[]) values, 0, 0);
+		}
+		
+		@Override
+		boolean readArray(MDArray data, long[] start, long[] count, Object values) {
+			
+			return data.Read(start, count, (float[]) values);
+		}
+	}
+	
+	// readers whose values gdal delivers as doubles
+	
+	private static abstract class DoubleReader<U extends Allocatable<U>>
+		extends TypeReader<U>
+	{
+		DoubleReader(int components, int bits) {
+			
+			super(components, bits);
+		}
+		
+		@Override
+		Object allocate(int count) {
+			
+			return new double[count * components];
+		}
+		
+		@Override
+		void readRaster(Band band, int row, int numRows, int cols, Object values) {
+			
+			band.ReadRaster(0, row, cols, numRows, cols, numRows, band.getDataType(), (double[]) values, 0, 0);
+		}
+		
+		@Override
+		boolean readArray(MDArray data, long[] start, long[] count, Object values) {
+			
+			return data.Read(start, count, (double[]) values);
+		}
+	}
+	
+	// gdal unpacks sub byte values to one value per byte as it reads
+	
+	private static final class UnsignedInt1Reader
+		extends ByteReader<UnsignedInt1Member>
+	{
+		UnsignedInt1Reader() {
+			
+			super(1, 1);
+		}
+		
+		@Override
+		UnsignedInt1Member construct() {
+			
+			return G.UINT1.construct();
+		}
+		
+		@Override
+		void merge(DataBundle bundle, DimensionedDataSource<UnsignedInt1Member> data) {
+			
+			bundle.mergeUInt1(data);
+		}
+		
+		@Override
+		void transfer(Object values, int count, IndexedDataSource<UnsignedInt1Member> raw, long base, long stride, UnsignedInt1Member var) {
+			
+			byte[] v = (byte[]) values;
+			
+			for (int i = 0; i < count; i++) {
+				
+				var.setV(v[i] & 1);
+				
+				raw.set(base + i * stride, var);
+			}
+		}
+	}
+	
+	private static final class UnsignedInt2Reader
+		extends ByteReader<UnsignedInt2Member>
+	{
+		UnsignedInt2Reader() {
+			
+			super(1, 2);
+		}
+		
+		@Override
+		UnsignedInt2Member construct() {
+			
+			return G.UINT2.construct();
+		}
+		
+		@Override
+		void merge(DataBundle bundle, DimensionedDataSource<UnsignedInt2Member> data) {
+			
+			bundle.mergeUInt2(data);
+		}
+		
+		@Override
+		void transfer(Object values, int count, IndexedDataSource<UnsignedInt2Member> raw, long base, long stride, UnsignedInt2Member var) {
+			
+			byte[] v = (byte[]) values;
+			
+			for (int i = 0; i < count; i++) {
+				
+				var.setV(v[i] & 3);
+				
+				raw.set(base + i * stride, var);
+			}
+		}
+	}
+	
+	private static final class UnsignedInt4Reader
+		extends ByteReader<UnsignedInt4Member>
+	{
+		UnsignedInt4Reader() {
+			
+			super(1, 4);
+		}
+		
+		@Override
+		UnsignedInt4Member construct() {
+			
+			return G.UINT4.construct();
+		}
+		
+		@Override
+		void merge(DataBundle bundle, DimensionedDataSource<UnsignedInt4Member> data) {
+			
+			bundle.mergeUInt4(data);
+		}
+		
+		@Override
+		void transfer(Object values, int count, IndexedDataSource<UnsignedInt4Member> raw, long base, long stride, UnsignedInt4Member var) {
+			
+			byte[] v = (byte[]) values;
+			
+			for (int i = 0; i < count; i++) {
+				
+				var.setV(v[i] & 15);
+				
+				raw.set(base + i * stride, var);
+			}
+		}
+	}
+	
+	private static final class UnsignedInt8Reader
+		extends ByteReader<UnsignedInt8Member>
+	{
+		UnsignedInt8Reader() {
+			
+			super(1, 8);
+		}
+		
+		@Override
+		UnsignedInt8Member construct() {
+			
+			return G.UINT8.construct();
+		}
+		
+		@Override
+		void merge(DataBundle bundle, DimensionedDataSource<UnsignedInt8Member> data) {
+			
+			bundle.mergeUInt8(data);
+		}
+		
+		@Override
+		void transfer(Object values, int count, IndexedDataSource<UnsignedInt8Member> raw, long base, long stride, UnsignedInt8Member var) {
+			
+			byte[] v = (byte[]) values;
+			
+			for (int i = 0; i < count; i++) {
+				
+				var.setV(v[i] & 0xff);
+				
+				raw.set(base + i * stride, var);
+			}
+		}
+	}
+	
+	private static final class SignedInt8Reader
+		extends ByteReader<SignedInt8Member>
+	{
+		SignedInt8Reader() {
+			
+			super(1, 8);
+		}
+		
+		@Override
+		SignedInt8Member construct() {
+			
+			return G.INT8.construct();
+		}
+		
+		@Override
+		void merge(DataBundle bundle, DimensionedDataSource<SignedInt8Member> data) {
+			
+			bundle.mergeInt8(data);
+		}
+		
+		@Override
+		void transfer(Object values, int count, IndexedDataSource<SignedInt8Member> raw, long base, long stride, SignedInt8Member var) {
+			
+			byte[] v = (byte[]) values;
+			
+			for (int i = 0; i < count; i++) {
+				
+				var.setV(v[i]);
+				
+				raw.set(base + i * stride, var);
+			}
+		}
+	}
+	
+	private static final class UnsignedInt16Reader
+		extends ShortReader<UnsignedInt16Member>
+	{
+		UnsignedInt16Reader() {
+			
+			super(1, 16);
+		}
+		
+		@Override
+		UnsignedInt16Member construct() {
+			
+			return G.UINT16.construct();
+		}
+		
+		@Override
+		void merge(DataBundle bundle, DimensionedDataSource<UnsignedInt16Member> data) {
+			
+			bundle.mergeUInt16(data);
+		}
+		
+		@Override
+		void transfer(Object values, int count, IndexedDataSource<UnsignedInt16Member> raw, long base, long stride, UnsignedInt16Member var) {
+			
+			short[] v = (short[]) values;
+			
+			for (int i = 0; i < count; i++) {
+				
+				var.setV(v[i] & 0xffff);
+				
+				raw.set(base + i * stride, var);
+			}
+		}
+	}
+	
+	private static final class SignedInt16Reader
+		extends ShortReader<SignedInt16Member>
+	{
+		SignedInt16Reader() {
+			
+			super(1, 16);
+		}
+		
+		@Override
+		SignedInt16Member construct() {
+			
+			return G.INT16.construct();
+		}
+		
+		@Override
+		void merge(DataBundle bundle, DimensionedDataSource<SignedInt16Member> data) {
+			
+			bundle.mergeInt16(data);
+		}
+		
+		@Override
+		void transfer(Object values, int count, IndexedDataSource<SignedInt16Member> raw, long base, long stride, SignedInt16Member var) {
+			
+			short[] v = (short[]) values;
+			
+			for (int i = 0; i < count; i++) {
+				
+				var.setV(v[i]);
+				
+				raw.set(base + i * stride, var);
+			}
+		}
+	}
+	
+	private static final class UnsignedInt32Reader
+		extends IntReader<UnsignedInt32Member>
+	{
+		UnsignedInt32Reader() {
+			
+			super(1, 32);
+		}
+		
+		@Override
+		UnsignedInt32Member construct() {
+			
+			return G.UINT32.construct();
+		}
+		
+		@Override
+		void merge(DataBundle bundle, DimensionedDataSource<UnsignedInt32Member> data) {
+			
+			bundle.mergeUInt32(data);
+		}
+		
+		@Override
+		void transfer(Object values, int count, IndexedDataSource<UnsignedInt32Member> raw, long base, long stride, UnsignedInt32Member var) {
+			
+			int[] v = (int[]) values;
+			
+			for (int i = 0; i < count; i++) {
+				
+				var.setV(v[i] & 0xffffffffL);
+				
+				raw.set(base + i * stride, var);
+			}
+		}
+	}
+	
+	private static final class SignedInt32Reader
+		extends IntReader<SignedInt32Member>
+	{
+		SignedInt32Reader() {
+			
+			super(1, 32);
+		}
+		
+		@Override
+		SignedInt32Member construct() {
+			
+			return G.INT32.construct();
+		}
+		
+		@Override
+		void merge(DataBundle bundle, DimensionedDataSource<SignedInt32Member> data) {
+			
+			bundle.mergeInt32(data);
+		}
+		
+		@Override
+		void transfer(Object values, int count, IndexedDataSource<SignedInt32Member> raw, long base, long stride, SignedInt32Member var) {
+			
+			int[] v = (int[]) values;
+			
+			for (int i = 0; i < count; i++) {
+				
+				var.setV(v[i]);
+				
+				raw.set(base + i * stride, var);
+			}
+		}
+	}
+	
+	private static final class UnsignedInt64Reader
+		extends LongReader<UnsignedInt64Member>
+	{
+		UnsignedInt64Reader() {
+			
+			super(1, 64);
+		}
+		
+		@Override
+		UnsignedInt64Member construct() {
+			
+			return G.UINT64.construct();
+		}
+		
+		@Override
+		void merge(DataBundle bundle, DimensionedDataSource<UnsignedInt64Member> data) {
+			
+			bundle.mergeUInt64(data);
+		}
+		
+		@Override
+		void transfer(Object values, int count, IndexedDataSource<UnsignedInt64Member> raw, long base, long stride, UnsignedInt64Member var) {
+			
+			long[] v = (long[]) values;
+			
+			for (int i = 0; i < count; i++) {
+				
+				var.setV(v[i]);
+				
+				raw.set(base + i * stride, var);
+			}
+		}
+	}
+	
+	private static final class SignedInt64Reader
+		extends LongReader<SignedInt64Member>
+	{
+		SignedInt64Reader() {
+			
+			super(1, 64);
+		}
+		
+		@Override
+		SignedInt64Member construct() {
+			
+			return G.INT64.construct();
+		}
+		
+		@Override
+		void merge(DataBundle bundle, DimensionedDataSource<SignedInt64Member> data) {
+			
+			bundle.mergeInt64(data);
+		}
+		
+		@Override
+		void transfer(Object values, int count, IndexedDataSource<SignedInt64Member> raw, long base, long stride, SignedInt64Member var) {
+			
+			long[] v = (long[]) values;
+			
+			for (int i = 0; i < count; i++) {
+				
+				var.setV(v[i]);
+				
+				raw.set(base + i * stride, var);
+			}
+		}
+	}
+	
+	// gdal converts Float16 values to floats as it reads them
+	
+	private static final class Float16Reader
+		extends FloatReader<Float16Member>
+	{
+		Float16Reader() {
+			
+			super(1, 16);
+		}
+		
+		@Override
+		Float16Member construct() {
+			
+			return G.HLF.construct();
+		}
+		
+		@Override
+		void merge(DataBundle bundle, DimensionedDataSource<Float16Member> data) {
+			
+			bundle.mergeFlt16(data);
+		}
+		
+		@Override
+		void readRaster(Band band, int row, int numRows, int cols, Object values) {
+			
+			band.ReadRaster(0, row, cols, numRows, cols, numRows, gdalconst.GDT_Float32, (float[]) values, 0, 0);
+		}
+		
+		@Override
+		void transfer(Object values, int count, IndexedDataSource<Float16Member> raw, long base, long stride, Float16Member var) {
+			
+			float[] v = (float[]) values;
+			
+			for (int i = 0; i < count; i++) {
+				
+				var.setV(v[i]);
+				
+				raw.set(base + i * stride, var);
+			}
+		}
+	}
+	
+	private static final class Float32Reader
+		extends FloatReader<Float32Member>
+	{
+		Float32Reader() {
+			
+			super(1, 32);
+		}
+		
+		@Override
+		Float32Member construct() {
+			
+			return G.FLT.construct();
+		}
+		
+		@Override
+		void merge(DataBundle bundle, DimensionedDataSource<Float32Member> data) {
+			
+			bundle.mergeFlt32(data);
+		}
+		
+		@Override
+		void transfer(Object values, int count, IndexedDataSource<Float32Member> raw, long base, long stride, Float32Member var) {
+			
+			float[] v = (float[]) values;
+			
+			for (int i = 0; i < count; i++) {
+				
+				var.setV(v[i]);
+				
+				raw.set(base + i * stride, var);
+			}
+		}
+	}
+	
+	private static final class Float64Reader
+		extends DoubleReader<Float64Member>
+	{
+		Float64Reader() {
+			
+			super(1, 64);
+		}
+		
+		@Override
+		Float64Member construct() {
+			
+			return G.DBL.construct();
+		}
+		
+		@Override
+		void merge(DataBundle bundle, DimensionedDataSource<Float64Member> data) {
+			
+			bundle.mergeFlt64(data);
+		}
+		
+		@Override
+		void transfer(Object values, int count, IndexedDataSource<Float64Member> raw, long base, long stride, Float64Member var) {
+			
+			double[] v = (double[]) values;
+			
+			for (int i = 0; i < count; i++) {
+				
+				var.setV(v[i]);
+				
+				raw.set(base + i * stride, var);
+			}
+		}
+	}
+	
+	private static final class GaussianInt16Reader
+		extends ShortReader<GaussianInt16Member>
+	{
+		GaussianInt16Reader() {
+			
+			super(2, 32);
+		}
+		
+		@Override
+		GaussianInt16Member construct() {
+			
+			return G.GAUSS16.construct();
+		}
+		
+		@Override
+		void merge(DataBundle bundle, DimensionedDataSource<GaussianInt16Member> data) {
+			
+			bundle.mergeGaussianInt16(data);
+		}
+		
+		@Override
+		void transfer(Object values, int count, IndexedDataSource<GaussianInt16Member> raw, long base, long stride, GaussianInt16Member var) {
+			
+			short[] v = (short[]) values;
+			
+			for (int i = 0; i < count; i++) {
+				
+				var.setR((int) v[2*i]);
+				
+				var.setI((int) v[2*i+1]);
+				
+				raw.set(base + i * stride, var);
+			}
+		}
+	}
+	
+	private static final class GaussianInt32Reader
+		extends IntReader<GaussianInt32Member>
+	{
+		GaussianInt32Reader() {
+			
+			super(2, 64);
+		}
+		
+		@Override
+		GaussianInt32Member construct() {
+			
+			return G.GAUSS32.construct();
+		}
+		
+		@Override
+		void merge(DataBundle bundle, DimensionedDataSource<GaussianInt32Member> data) {
+			
+			bundle.mergeGaussianInt32(data);
+		}
+		
+		@Override
+		void transfer(Object values, int count, IndexedDataSource<GaussianInt32Member> raw, long base, long stride, GaussianInt32Member var) {
+			
+			int[] v = (int[]) values;
+			
+			for (int i = 0; i < count; i++) {
+				
+				var.setR(v[2*i]);
+				
+				var.setI(v[2*i+1]);
+				
+				raw.set(base + i * stride, var);
+			}
+		}
+	}
+	
+	private static final class ComplexFloat32Reader
+		extends FloatReader<ComplexFloat32Member>
+	{
+		ComplexFloat32Reader() {
+			
+			super(2, 64);
+		}
+		
+		@Override
+		ComplexFloat32Member construct() {
+			
+			return G.CFLT.construct();
+		}
+		
+		@Override
+		void merge(DataBundle bundle, DimensionedDataSource<ComplexFloat32Member> data) {
+			
+			bundle.mergeComplexFlt32(data);
+		}
+		
+		@Override
+		void transfer(Object values, int count, IndexedDataSource<ComplexFloat32Member> raw, long base, long stride, ComplexFloat32Member var) {
+			
+			float[] v = (float[]) values;
+			
+			for (int i = 0; i < count; i++) {
+				
+				var.setR(v[2*i]);
+				
+				var.setI(v[2*i+1]);
+				
+				raw.set(base + i * stride, var);
+			}
+		}
+	}
+	
+	private static final class ComplexFloat64Reader
+		extends DoubleReader<ComplexFloat64Member>
+	{
+		ComplexFloat64Reader() {
+			
+			super(2, 128);
+		}
+		
+		@Override
+		ComplexFloat64Member construct() {
+			
+			return G.CDBL.construct();
+		}
+		
+		@Override
+		void merge(DataBundle bundle, DimensionedDataSource<ComplexFloat64Member> data) {
+			
+			bundle.mergeComplexFlt64(data);
+		}
+		
+		@Override
+		void transfer(Object values, int count, IndexedDataSource<ComplexFloat64Member> raw, long base, long stride, ComplexFloat64Member var) {
+			
+			double[] v = (double[]) values;
+			
+			for (int i = 0; i < count; i++) {
+				
+				var.setR(v[2*i]);
+				
+				var.setI(v[2*i+1]);
+				
+				raw.set(base + i * stride, var);
+			}
+		}
+	}
+}
@@ -0,0 +1,179 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Translates URIs into the names gdal's virtual file systems understand.
+ * 
+ * <pre>
+ *   file:/data/a.tif                   becomes  /data/a.tif
+ *   http://host/a.tif (https, ftp)     becomes  /vsicurl/http://host/a.tif
+ *   s3://bucket/key/a.tif              becomes  /vsis3/bucket/key/a.tif
+ *   gs://bucket/key/a.tif              becomes  /vsigs/bucket/key/a.tif
+ *   az://container/key/a.tif (azure)   becomes  /vsiaz/container/key/a.tif
+ *   zip:file:/data/a.zip!/b/c.tif      becomes  /vsizip//data/a.zip/b/c.tif
+ *   tar:s3://bucket/a.tar!/c.tif       becomes  /vsitar//vsis3/bucket/a.tar/c.tif
+ *   gzip:file:/data/a.tif.gz           becomes  /vsigzip//data/a.tif.gz
+ *   mem:/name.tif                      becomes  /vsimem/name.tif
+ * </pre>
+ * 
+ * Archive URIs nest, so the archive itself can live on any supported
+ * scheme. Unknown schemes are handed to /vsicurl/ as a good faith attempt.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+class VsiNames {
+
+	private static final String TEMP_PREFIX = "/vsimem/zorbage-gdal/";
+
+	private VsiNames() { }
+	
+	static String toGdalName(URI fileURI) {
+		
+		String scheme = fileURI.getScheme();
+		
+		final String gdalName;
+		
+		if (scheme == null || "file".equals(scheme)) {
+		
+			gdalName = fileURI.getPath();  // just grab the file name
+		}
+		
+		else if ("ftp".equals(scheme) ||
+					"http".equals(scheme) ||
+					"https".equals(scheme))
+		{
+			gdalName = "/vsicurl/" + fileURI.toString();
+		}
+		
+		else if ("s3".equals(scheme)) {
+			
+			gdalName = "/vsis3/" + bucketPath(fileURI);
+		}
+		
+		else if ("gs".equals(scheme)) {
+			
+			gdalName = "/vsigs/" + bucketPath(fileURI);
+		}
+		
+		else if ("az".equals(scheme) || "azure".equals(scheme)) {
+			
+			gdalName = "/vsiaz/" + bucketPath(fileURI);
+		}
+		
+		else if ("zip".equals(scheme)) {
+			
+			gdalName = archiveName("/vsizip/", fileURI);
+		}
+		
+		else if ("tar".equals(scheme)) {
+			
+			gdalName = archiveName("/vsitar/", fileURI);
+		}
+		
+		else if ("gzip".equals(scheme)) {
+			
+			gdalName = "/vsigzip/" + toGdalName(URI.create(fileURI.getRawSchemeSpecificPart()));
+		}
+		
+		else if ("mem".equals(scheme)) {
+			
+			String path = fileURI.getSchemeSpecificPart();
+			
+			while (path.startsWith("/")) path = path.substring(1);
+			
+			gdalName = "/vsimem/" + path;
+		}
+		
+		else {  // make a good faith attempt to load something
+			
+			gdalName = "/vsicurl/" + fileURI.toString();
+		}
+		
+		return gdalName;
+	}
+	
+	/**
+	 * Returns a new unique name in gdal's /vsimem/ file system.
+	 */
+	static String tempMemName() {
+		
+		return tempMemName("");
+	}
+	
+	/**
+	 * Returns a new unique name in gdal's /vsimem/ file system that ends
+	 * with the given suffix (such as ".vrt").
+	 */
+	static String tempMemName(String suffix) {
+		
+		return TEMP_PREFIX + UUID.randomUUID() + suffix;
+	}
+	
+	/**
+	 * Returns true if the gdal name is (or names a subdataset of) a
+	 * temporary /vsimem/ file that is unlinked when its read ends.
+	 */
+	static boolean isTemporary(String gdalName) {
+		
+		return gdalName.contains(TEMP_PREFIX);
+	}
+	
+	// s3://bucket/a/b.tif -> bucket/a/b.tif
+	
+	private static String bucketPath(URI uri) {
+		
+		String bucket = uri.getAuthority();
+		
+		String path = uri.getPath();
+		
+		if (bucket == null || bucket.length() == 0)
+			throw new IllegalArgumentException("uri has no bucket or container: " + uri);
+		
+		if (path == null) path = "";
+		
+		return bucket + path;
+	}
+	
+	// zip:<archive uri>!/<member path> -> <prefix><archive gdal name>/<member path>
+	
+	private static String archiveName(String prefix, URI uri) {
+		
+		String ssp = uri.getRawSchemeSpecificPart();
+		
+		int bang = ssp.lastIndexOf("!/");
+		
+		String archive = (bang < 0) ? ssp : ssp.substring(0, bang);
+		
+		String member = (bang < 0) ? "" : URI.create("file:" + ssp.substring(bang + 1)).getPath();
+		
+		String archiveName = toGdalName(URI.create(archive));
+		
+		return prefix + archiveName + member;
+	}
+}
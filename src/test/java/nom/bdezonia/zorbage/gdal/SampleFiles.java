@@ -0,0 +1,182 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.gdal.gdal.Band;
+import org.gdal.gdal.Dataset;
+import org.gdal.gdal.Driver;
+import org.gdal.gdal.gdal;
+import org.gdal.gdalconst.gdalconst;
+
+import nom.bdezonia.zorbage.algebra.G;
+import nom.bdezonia.zorbage.data.DimensionedDataSource;
+import nom.bdezonia.zorbage.datasource.IndexedDataSource;
+import nom.bdezonia.zorbage.misc.DataBundle;
+import nom.bdezonia.zorbage.type.integer.int8.UnsignedInt8Member;
+
+/**
+ * Creates small byte valued GTiff files through gdal for the tests and
+ * compares the bundles read from them.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+class SampleFiles {
+
+	private static Boolean available = null;
+	
+	private SampleFiles() { }
+	
+	/**
+	 * Returns true if gdal and its native libraries can be used. Tests
+	 * are skipped on machines without them.
+	 */
+	static synchronized boolean gdalAvailable() {
+		
+		if (available == null) {
+			
+			try {
+				
+				available = (Gdal.init() == 0);
+				
+			} catch (UnsatisfiedLinkError | NoClassDefFoundError e) {
+				
+				available = false;
+			}
+		}
+		
+		return available;
+	}
+	
+	/**
+	 * Create a temporary GTiff file whose bands hold a pattern that differs
+	 * from band to band and from file to file (by seed).
+	 * 
+	 * @param size The number of rows and columns in each band
+	 * @param bandCount The number of bands to write
+	 * @param seed Varies the pattern
+	 * @param creationOptions gdal GTiff creation options
+	 * @return The name of the created file
+	 */
+	static String byteTiff(int size, int bandCount, int seed, String... creationOptions)
+		throws IOException
+	{
+		File file = File.createTempFile("zorbage-gdal-test-", ".tif");
+		
+		// gdal wants to create the file itself
+		
+		file.delete();
+		
+		String filename = file.getAbsolutePath();
+		
+		Driver driver = gdal.GetDriverByName("GTiff");
+		
+		Dataset ds = driver.Create(filename, size, size, bandCount, gdalconst.GDT_Byte, creationOptions);
+		
+		if (ds == null)
+			throw new IOException("could not create " + filename + ": " + gdal.GetLastErrorMsg());
+		
+		byte[] row = new byte[size];
+		
+		for (int b = 1; b <= bandCount; b++) {
+			
+			Band band = ds.GetRasterBand(b);
+			
+			for (int y = 0; y < size; y++) {
+				
+				for (int x = 0; x < size; x++) {
+					
+					row[x] = (byte) (3*x + 7*y + 11*b + 13*seed);
+				}
+				
+				band.WriteRaster(0, y, size, 1, size, 1, gdalconst.GDT_Byte, row, 0, 0);
+			}
+		}
+		
+		ds.FlushCache();
+		
+		ds.delete();
+		
+		return filename;
+	}
+	
+	static void delete(String filename) {
+		
+		new File(filename).delete();
+	}
+	
+	/**
+	 * Fails unless the two bundles hold the same byte valued datasets with
+	 * the same names, shapes, and values.
+	 */
+	@SuppressWarnings("unchecked")
+	static void assertSameData(DataBundle expected, DataBundle actual) {
+		
+		List<DimensionedDataSource<?>> a = expected.bundle();
+		
+		List<DimensionedDataSource<?>> b = actual.bundle();
+		
+		assertEquals(a.size(), b.size());
+		
+		UnsignedInt8Member va = G.UINT8.construct();
+		
+		UnsignedInt8Member vb = G.UINT8.construct();
+		
+		for (int i = 0; i < a.size(); i++) {
+			
+			DimensionedDataSource<UnsignedInt8Member> da = (DimensionedDataSource<UnsignedInt8Member>) a.get(i);
+			
+			DimensionedDataSource<UnsignedInt8Member> db = (DimensionedDataSource<UnsignedInt8Member>) b.get(i);
+			
+			assertEquals(da.getName(), db.getName());
+			
+			assertEquals(da.numDimensions(), db.numDimensions());
+			
+			for (int d = 0; d < da.numDimensions(); d++) {
+				
+				assertEquals(da.dimension(d), db.dimension(d));
+			}
+			
+			IndexedDataSource<UnsignedInt8Member> ra = da.rawData();
+			
+			IndexedDataSource<UnsignedInt8Member> rb = db.rawData();
+			
+			for (long k = 0; k < ra.size(); k++) {
+				
+				ra.get(k, va);
+				
+				rb.get(k, vb);
+				
+				if (va.v() != vb.v())
+					assertEquals(da.getName() + " differs at " + k, va.v(), vb.v());
+			}
+		}
+	}
+}
@@ -0,0 +1,370 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import nom.bdezonia.zorbage.misc.DataBundle;
+
+/**
+ * Stress tests of concurrent use of the Gdal facade. Many threads read the
+ * same file and different files at once through each entry point and
+ * every result must match a serial read of the same file.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public class TestConcurrentReads {
+
+	private static final int THREADS = 16;
+	
+	private static final int REPEATS = 4;
+	
+	private static final List<String> files = new ArrayList<>();
+	
+	private static final List<DataBundle> serial = new ArrayList<>();
+	
+	@BeforeClass
+	public static void setUp() throws IOException {
+		
+		assumeTrue(SampleFiles.gdalAvailable());
+		
+		// a mix of layouts, sizes and band counts
+		
+		for (int i = 0; i < 6; i++) {
+			
+			String filename = (i % 2 == 0) ?
+					SampleFiles.byteTiff(200 + 37*i, 1 + i % 3, i, "TILED=YES", "BLOCKXSIZE=64", "BLOCKYSIZE=64") :
+					SampleFiles.byteTiff(200 + 37*i, 1 + i % 3, i, "TILED=NO", "BLOCKYSIZE=8");
+			
+			files.add(filename);
+		}
+		
+		for (String filename : files) {
+			
+			serial.add(Gdal.readAllDatasets(filename));
+		}
+	}
+	
+	@AfterClass
+	public static void tearDown() {
+		
+		for (String filename : files) {
+			
+			SampleFiles.delete(filename);
+		}
+	}
+	
+	@Test
+	public void testConcurrentInit() throws Exception {
+		
+		List<Callable<Void>> tasks = new ArrayList<>();
+		
+		for (int t = 0; t < THREADS; t++) {
+			
+			tasks.add(() -> {
+				
+				assertEquals(0, Gdal.init());
+				
+				return null;
+			});
+		}
+		
+		runTogether(tasks);
+	}
+	
+	@Test
+	public void testParallelReadsOfOneFile() throws Exception {
+		
+		List<Callable<Void>> tasks = new ArrayList<>();
+		
+		for (int t = 0; t < THREADS; t++) {
+			
+			tasks.add(() -> {
+				
+				for (int r = 0; r < REPEATS; r++) {
+					
+					GdalReadResult result = Gdal.read(files.get(0), new GdalReadOptions());
+					
+					SampleFiles.assertSameData(serial.get(0), result.data());
+				}
+				
+				return null;
+			});
+		}
+		
+		runTogether(tasks);
+	}
+	
+	@Test
+	public void testParallelReadsOfManyFiles() throws Exception {
+		
+		List<Callable<Void>> tasks = new ArrayList<>();
+		
+		for (int t = 0; t < THREADS; t++) {
+			
+			final int offset = t;
+			
+			tasks.add(() -> {
+				
+				// each thread visits the files in a different order
+				
+				for (int r = 0; r < REPEATS * files.size(); r++) {
+					
+					int i = (offset + r) % files.size();
+					
+					SampleFiles.assertSameData(serial.get(i), Gdal.readAllDatasets(files.get(i)));
+				}
+				
+				return null;
+			});
+		}
+		
+		runTogether(tasks);
+	}
+	
+	@Test
+	public void testParallelReadsSharingCachesAndOptions() throws Exception {
+		
+		// one options object, tile cache and metrics registry for all threads
+		
+		GdalMetrics metrics = new GdalMetrics();
+		
+		GdalReadOptions options = new GdalReadOptions()
+				.setTileCache(new GdalTileCache(4L * 1024 * 1024))
+				.setMetrics(metrics)
+				.setProgressListener((file, name, done, total) -> { });
+		
+		List<Callable<Void>> tasks = new ArrayList<>();
+		
+		for (int t = 0; t < THREADS; t++) {
+			
+			final int offset = t;
+			
+			tasks.add(() -> {
+				
+				for (int r = 0; r < REPEATS * files.size(); r++) {
+					
+					int i = (offset + r) % files.size();
+					
+					SampleFiles.assertSameData(serial.get(i), Gdal.read(files.get(i), options).data());
+				}
+				
+				return null;
+			});
+		}
+		
+		runTogether(tasks);
+		
+		// every read was recorded (a raster read opens its file twice:
+		//   once as multidim data and once as banded data)
+		
+		for (String filename : files) {
+			
+			assertTrue(metrics.dataset(filename).opens() >= THREADS * REPEATS);
+		}
+	}
+	
+	@Test
+	public void testParallelReadsWithReadLimit() throws Exception {
+		
+		final int limit = 3;
+		
+		// progress is only reported from inside a read that holds a permit
+		//   so the listeners running at once count the reads in flight.
+		//   Each listener call lingers to give other reads a chance to
+		//   overlap it.
+		
+		AtomicInteger inFlight = new AtomicInteger();
+		
+		AtomicInteger peak = new AtomicInteger();
+		
+		GdalReadOptions options = new GdalReadOptions()
+				.setProgressListener((file, name, done, total) -> {
+					
+					int now = inFlight.incrementAndGet();
+					
+					peak.accumulateAndGet(now, Math::max);
+					
+					try {
+						
+						Thread.sleep(2);
+						
+					} catch (InterruptedException e) {
+						
+						Thread.currentThread().interrupt();
+						
+					} finally {
+						
+						inFlight.decrementAndGet();
+					}
+				});
+		
+		Gdal.setMaxConcurrentReads(limit);
+		
+		try {
+			
+			List<Callable<Void>> tasks = new ArrayList<>();
+			
+			for (int t = 0; t < THREADS; t++) {
+				
+				final int offset = t;
+				
+				tasks.add(() -> {
+					
+					for (int r = 0; r < REPEATS; r++) {
+						
+						int i = (offset + r) % files.size();
+						
+						SampleFiles.assertSameData(serial.get(i), Gdal.read(files.get(i), options).data());
+					}
+					
+					return null;
+				});
+			}
+			
+			runTogether(tasks);
+			
+		} finally {
+			
+			Gdal.setMaxConcurrentReads(0);
+		}
+		
+		assertTrue("peak of " + peak.get() + " reads at once", peak.get() <= limit);
+		
+		// the reads did overlap so the limit was what held them back
+		
+		assertTrue("peak of " + peak.get() + " reads at once", peak.get() > 1);
+	}
+	
+	@Test
+	public void testBatchReaderMatchesSerialReads() throws Exception {
+		
+		List<String> batch = new ArrayList<>();
+		
+		for (int r = 0; r < REPEATS; r++) {
+			
+			batch.addAll(files);
+		}
+		
+		DataBundle[] results = new DataBundle[batch.size()];
+		
+		ConcurrentLinkedQueue<Exception> failures = new ConcurrentLinkedQueue<>();
+		
+		new GdalBatchReader(8, new GdalReadOptions()).read(batch, new GdalBatchListener() {
+			
+			@Override
+			public void fileRead(int index, String filename, DataBundle bundle) {
+				
+				results[index] = bundle;
+			}
+			
+			@Override
+			public void fileFailed(int index, String filename, Exception failure) {
+				
+				failures.add(failure);
+			}
+		});
+		
+		assertEquals("failures: " + failures, 0, failures.size());
+		
+		for (int i = 0; i < batch.size(); i++) {
+			
+			assertNotNull(results[i]);
+			
+			SampleFiles.assertSameData(serial.get(i % files.size()), results[i]);
+		}
+	}
+	
+	@Test
+	public void testConcurrentBatches() throws Exception {
+		
+		List<Callable<Void>> tasks = new ArrayList<>();
+		
+		for (int t = 0; t < 4; t++) {
+			
+			tasks.add(() -> {
+				
+				testBatchReaderMatchesSerialReads();
+				
+				return null;
+			});
+		}
+		
+		runTogether(tasks);
+	}
+	
+	// Start all the tasks at the same moment and rethrow the first failure
+	
+	private static void runTogether(List<Callable<Void>> tasks) throws Exception {
+		
+		ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+		
+		CountDownLatch start = new CountDownLatch(1);
+		
+		try {
+			
+			List<Future<Void>> results = new ArrayList<>();
+			
+			for (Callable<Void> task : tasks) {
+				
+				results.add(pool.submit(() -> {
+					
+					start.await();
+					
+					return task.call();
+				}));
+			}
+			
+			start.countDown();
+			
+			for (Future<Void> result : results) {
+				
+				result.get();
+			}
+			
+		} finally {
+			
+			pool.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Table driven tests of the cancel and deadline checks of
+ * GdalCancellation. Only the progress callback test needs gdal.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public class TestGdalCancellation {
+
+	private static final long NO_DEADLINE = -1;
+	
+	private static final long LONG_DEADLINE = TimeUnit.HOURS.toMillis(1);
+	
+	// cancel(), deadline in millis, expected message or null if not cancelled
+	
+	private static final Object[][] CASES = new Object[][] {
+		
+		{ false, NO_DEADLINE, null },
+		{ false, LONG_DEADLINE, null },
+		{ false, 0L, "passed its deadline" },
+		{ true, NO_DEADLINE, "was cancelled" },
+		{ true, LONG_DEADLINE, "was cancelled" },
+		{ true, 0L, "was cancelled" }
+	};
+	
+	@Test
+	public void testChecks() {
+		
+		for (Object[] row : CASES) {
+			
+			boolean cancel = (Boolean) row[0];
+			
+			long deadline = (Long) row[1];
+			
+			String expected = (String) row[2];
+			
+			String name = "cancel " + cancel + " deadline " + deadline;
+			
+			GdalCancellation token = new GdalCancellation();
+			
+			if (deadline != NO_DEADLINE)
+				token.cancelAfter(deadline, TimeUnit.MILLISECONDS);
+			
+			if (cancel)
+				token.cancel();
+			
+			assertEquals(name, expected != null, token.isCancelled());
+			
+			try {
+				
+				token.check("a.tif");
+				
+				if (expected != null)
+					fail(name + ": check did not throw");
+			}
+			catch (CancellationException e) {
+				
+				if (expected == null)
+					fail(name + ": check threw " + e.getMessage());
+				
+				assertTrue(name, e.getMessage().contains("a.tif"));
+				
+				assertTrue(name, e.getMessage().contains(expected));
+			}
+		}
+	}
+	
+	@Test
+	public void testGdalCallback() {
+		
+		assumeTrue(SampleFiles.gdalAvailable());
+		
+		GdalCancellation token = new GdalCancellation();
+		
+		assertEquals(1, token.gdalCallback().run(0.5, ""));
+		
+		token.cancel();
+		
+		assertEquals(0, token.gdalCallback().run(0.5, ""));
+	}
+	
+	@Test
+	public void testDeadlinePasses() throws InterruptedException {
+		
+		GdalCancellation token = new GdalCancellation().cancelAfter(50, TimeUnit.MILLISECONDS);
+		
+		assertFalse(token.isCancelled());
+		
+		Thread.sleep(200);
+		
+		assertTrue(token.isCancelled());
+	}
+	
+	@Test
+	public void testLaterDeadlineReplacesEarlier() {
+		
+		GdalCancellation token = new GdalCancellation().cancelAfter(0, TimeUnit.MILLISECONDS);
+		
+		assertTrue(token.isCancelled());
+		
+		token.cancelAfter(1, TimeUnit.HOURS);
+		
+		assertFalse(token.isCancelled());
+	}
+	
+	@Test
+	public void testCancelFromAnotherThread() throws InterruptedException {
+		
+		final GdalCancellation token = new GdalCancellation();
+		
+		Thread canceller = new Thread(new Runnable() {
+			
+			@Override
+			public void run() {
+				
+				token.cancel();
+			}
+		});
+		
+		canceller.start();
+		
+		canceller.join();
+		
+		assertTrue(token.isCancelled());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeDuration() {
+		
+		new GdalCancellation().cancelAfter(-1, TimeUnit.SECONDS);
+	}
+}
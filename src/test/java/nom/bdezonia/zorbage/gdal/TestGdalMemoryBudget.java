@@ -0,0 +1,349 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+
+import org.junit.Test;
+
+import nom.bdezonia.zorbage.algebra.G;
+import nom.bdezonia.zorbage.data.DimensionedDataSource;
+import nom.bdezonia.zorbage.misc.DataBundle;
+import nom.bdezonia.zorbage.type.integer.int8.UnsignedInt8Member;
+
+/**
+ * Tests of the memory budget's reservations and of how reads allocate
+ * under each policy. Only the tests that read files need gdal.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public class TestGdalMemoryBudget {
+
+	private static ReadContext context(GdalMemoryBudget budget) {
+		
+		return new ReadContext(new GdalReadOptions().setMemoryBudget(budget), "a.tif");
+	}
+	
+	private static DimensionedDataSource<UnsignedInt8Member> allocate(ReadContext ctx, long x, long y) {
+		
+		return ctx.allocate(G.UINT8.construct(), new long[] {x, y}, 8, "band-1");
+	}
+	
+	@Test
+	public void testReserve() {
+		
+		GdalMemoryBudget budget = new GdalMemoryBudget(1000, GdalMemoryBudget.Policy.FAIL);
+		
+		assertTrue(budget.reserve(600));
+		
+		assertEquals(600, budget.used());
+		
+		assertEquals(400, budget.available());
+		
+		// does not fit and takes nothing
+		
+		assertFalse(budget.reserve(401));
+		
+		assertEquals(600, budget.used());
+		
+		assertTrue(budget.reserve(400));
+		
+		assertEquals(0, budget.available());
+		
+		budget.unreserve(1000);
+		
+		assertEquals(0, budget.used());
+	}
+	
+	@Test
+	public void testRelease() {
+		
+		GdalMemoryBudget budget = new GdalMemoryBudget(1000, GdalMemoryBudget.Policy.FAIL);
+		
+		ReadContext ctx = context(budget);
+		
+		DimensionedDataSource<UnsignedInt8Member> a = allocate(ctx, 10, 20);
+		
+		DimensionedDataSource<UnsignedInt8Member> b = allocate(ctx, 10, 30);
+		
+		assertEquals(500, budget.used());
+		
+		budget.release(a);
+		
+		assertEquals(300, budget.used());
+		
+		// releasing twice gives nothing more back
+		
+		budget.release(a);
+		
+		assertEquals(300, budget.used());
+		
+		budget.release(b);
+		
+		assertEquals(0, budget.used());
+		
+		// datasets of other budgets are ignored
+		
+		GdalMemoryBudget other = new GdalMemoryBudget(1000, GdalMemoryBudget.Policy.FAIL);
+		
+		DimensionedDataSource<UnsignedInt8Member> c = allocate(context(other), 10, 10);
+		
+		budget.release(c);
+		
+		assertEquals(100, other.used());
+	}
+	
+	@Test
+	public void testFailPolicy() {
+		
+		GdalMemoryBudget budget = new GdalMemoryBudget(1000, GdalMemoryBudget.Policy.FAIL);
+		
+		ReadContext ctx = context(budget);
+		
+		assertTrue(ctx.failsOverBudget());
+		
+		assertFalse(ctx.mustDownsample(5000));
+		
+		allocate(ctx, 20, 20);
+		
+		try {
+			
+			allocate(ctx, 30, 30);
+			
+			fail("allocated more than the budget holds");
+		}
+		catch (IllegalArgumentException e) {
+			
+			assertTrue(e.getMessage().contains("a.tif"));
+		}
+		
+		assertEquals(400, budget.used());
+		
+		ctx.requireBudget(600);
+		
+		try {
+			
+			ctx.requireBudget(601);
+			
+			fail("whole file check passed a file that does not fit");
+		}
+		catch (IllegalArgumentException e) {
+			
+			// expected
+		}
+		
+		assertFalse(ctx.spilled());
+	}
+	
+	@Test
+	public void testSpillPolicy() {
+		
+		GdalMemoryBudget budget = new GdalMemoryBudget(1000, GdalMemoryBudget.Policy.SPILL);
+		
+		ReadContext ctx = context(budget);
+		
+		assertFalse(ctx.failsOverBudget());
+		
+		allocate(ctx, 20, 20);
+		
+		assertFalse(ctx.spilled());
+		
+		// does not fit: spilled to file backed storage and not charged
+		
+		assertNotNull(allocate(ctx, 100, 100));
+		
+		assertTrue(ctx.spilled());
+		
+		assertEquals(400, budget.used());
+	}
+	
+	@Test
+	public void testDownsamplePolicy() {
+		
+		GdalMemoryBudget budget = new GdalMemoryBudget(1000, GdalMemoryBudget.Policy.DOWNSAMPLE);
+		
+		ReadContext ctx = context(budget);
+		
+		assertFalse(ctx.failsOverBudget());
+		
+		assertFalse(ctx.mustDownsample(1000));
+		
+		assertTrue(ctx.mustDownsample(1001));
+		
+		assertTrue(ctx.fits(1000));
+		
+		assertFalse(ctx.fits(1001));
+		
+		allocate(ctx, 10, 50);
+		
+		assertTrue(ctx.mustDownsample(501));
+	}
+	
+	@Test
+	public void testNoBudget() {
+		
+		ReadContext ctx = new ReadContext(new GdalReadOptions(), "a.tif");
+		
+		assertFalse(ctx.failsOverBudget());
+		
+		assertFalse(ctx.mustDownsample(Long.MAX_VALUE));
+		
+		assertTrue(ctx.fits(Long.MAX_VALUE));
+		
+		ctx.requireBudget(Long.MAX_VALUE);
+		
+		assertNotNull(allocate(ctx, 10, 10));
+	}
+	
+	@Test
+	public void testReleaseCharged() {
+		
+		GdalMemoryBudget budget = new GdalMemoryBudget(1000, GdalMemoryBudget.Policy.FAIL);
+		
+		ReadContext ctx = context(budget);
+		
+		ReadContext nested = context(budget);
+		
+		allocate(ctx, 10, 10);
+		
+		DataBundle outputs = new DataBundle();
+		
+		outputs.mergeUInt8(allocate(nested, 10, 20));
+		
+		assertEquals(300, budget.used());
+		
+		// a failed read gives back its own datasets and those of the
+		//   nested reads it merged
+		
+		ctx.releaseCharged(outputs);
+		
+		assertEquals(0, budget.used());
+	}
+	
+	@Test
+	public void testBytesFor() {
+		
+		assertEquals(100, ReadContext.bytesFor(new long[] {10, 10}, 8));
+		
+		assertEquals(13, ReadContext.bytesFor(new long[] {10, 10}, 1));
+		
+		assertEquals(800, ReadContext.bytesFor(new long[] {10, 10}, 64));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeLimit() {
+		
+		new GdalMemoryBudget(-1, GdalMemoryBudget.Policy.FAIL);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testPolicyRequired() {
+		
+		new GdalMemoryBudget(1000, null);
+	}
+	
+	@Test
+	public void testFileThatDoesNotFitAllocatesNothing() throws IOException {
+		
+		assumeTrue(SampleFiles.gdalAvailable());
+		
+		String filename = SampleFiles.byteTiff(100, 3, 0);
+		
+		try {
+			
+			GdalMemoryBudget budget = new GdalMemoryBudget(20000, GdalMemoryBudget.Policy.FAIL);
+			
+			try {
+				
+				Gdal.read(filename, new GdalReadOptions().setMemoryBudget(budget));
+				
+				fail("read a file bigger than the budget");
+			}
+			catch (IllegalArgumentException e) {
+				
+				// expected
+			}
+			
+			assertEquals(0, budget.used());
+		}
+		finally {
+			
+			SampleFiles.delete(filename);
+		}
+	}
+	
+	@Test
+	public void testCancelledReadGivesBytesBack() throws IOException {
+		
+		assumeTrue(SampleFiles.gdalAvailable());
+		
+		String filename = SampleFiles.byteTiff(100, 3, 0, "TILED=NO", "BLOCKYSIZE=8");
+		
+		try {
+			
+			GdalMemoryBudget budget = new GdalMemoryBudget(1000000, GdalMemoryBudget.Policy.FAIL);
+			
+			final GdalCancellation cancel = new GdalCancellation();
+			
+			GdalReadOptions options = new GdalReadOptions()
+					.setMemoryBudget(budget)
+					.setCancellation(cancel)
+					.setProgressListener((file, name, done, total) -> cancel.cancel());
+			
+			try {
+				
+				Gdal.read(filename, options);
+				
+				fail("cancelled read completed");
+			}
+			catch (CancellationException e) {
+				
+				// expected
+			}
+			
+			assertEquals(0, budget.used());
+			
+			// the whole budget is free for the next read
+			
+			DataBundle data = Gdal.read(filename, new GdalReadOptions().setMemoryBudget(budget)).data();
+			
+			assertEquals(1, data.bundle().size());
+			
+			assertEquals(30000, budget.used());
+		}
+		finally {
+			
+			SampleFiles.delete(filename);
+		}
+	}
+}
@@ -0,0 +1,327 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Round trip tests of the metadata index file format: store, reopen,
+ * lookup, torn tails, compaction and stale entries. The indexed files are
+ * plain local files so none of these tests need gdal.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public class TestGdalMetadataIndex {
+
+	private Path dir;
+	
+	private Path indexFile;
+	
+	@Before
+	public void setUp() throws IOException {
+		
+		dir = Files.createTempDirectory("zorbage-gdal-index-");
+		
+		indexFile = dir.resolve("index.bin");
+	}
+	
+	@After
+	public void tearDown() throws IOException {
+		
+		for (Path p : Files.newDirectoryStream(dir)) {
+			
+			Files.delete(p);
+		}
+		
+		Files.delete(dir);
+	}
+	
+	private String dataFile(String name, int bytes) throws IOException {
+		
+		Path p = dir.resolve(name);
+		
+		Files.write(p, new byte[bytes]);
+		
+		return p.toString();
+	}
+	
+	private static GdalStructure structure(String filename) {
+		
+		GdalStructure.ArrayInfo scaled =
+				new GdalStructure.ArrayInfo("/temp", new long[] {4, 180, 360}, 6, 0.01, -40.0, "degC");
+		
+		GdalStructure.ArrayInfo plain =
+				new GdalStructure.ArrayInfo("/mask", new long[] {180, 360}, 1, null, null, "");
+		
+		return new GdalStructure(filename, Arrays.asList("NETCDF:\"" + filename + "\":temp"), Arrays.asList(scaled, plain));
+	}
+	
+	private static void assertSameStructure(GdalStructure expected, GdalStructure actual) {
+		
+		assertNotNull(actual);
+		
+		assertEquals(expected.filename(), actual.filename());
+		
+		assertEquals(expected.subdatasets(), actual.subdatasets());
+		
+		assertEquals(expected.arrays().size(), actual.arrays().size());
+		
+		for (int i = 0; i < expected.arrays().size(); i++) {
+			
+			GdalStructure.ArrayInfo a = expected.arrays().get(i);
+			
+			GdalStructure.ArrayInfo b = actual.arrays().get(i);
+			
+			assertEquals(a.name(), b.name());
+			
+			assertEquals(a.dataType(), b.dataType());
+			
+			assertEquals(Arrays.toString(a.dims()), Arrays.toString(b.dims()));
+			
+			assertEquals(a.scale(), b.scale());
+			
+			assertEquals(a.offset(), b.offset());
+			
+			assertEquals(a.unit(), b.unit());
+		}
+	}
+	
+	@Test
+	public void testStoreAndLookup() throws IOException {
+		
+		String file = dataFile("a.nc", 100);
+		
+		GdalMetadataIndex index = new GdalMetadataIndex(indexFile);
+		
+		assertNull(index.lookup(file));
+		
+		index.store(structure(file));
+		
+		assertSameStructure(structure(file), index.lookup(file));
+	}
+	
+	@Test
+	public void testReopen() throws IOException {
+		
+		String a = dataFile("a.nc", 100);
+		
+		String b = dataFile("b.nc", 200);
+		
+		GdalMetadataIndex index = new GdalMetadataIndex(indexFile);
+		
+		index.store(structure(a));
+		
+		index.store(new GdalStructure(b, Collections.<String>emptyList(), Collections.<GdalStructure.ArrayInfo>emptyList()));
+		
+		GdalMetadataIndex reopened = new GdalMetadataIndex(indexFile);
+		
+		assertSameStructure(structure(a), reopened.lookup(a));
+		
+		assertEquals(0, reopened.lookup(b).arrays().size());
+		
+		assertNull(reopened.lookup(dataFile("c.nc", 10)));
+	}
+	
+	@Test
+	public void testLaterRecordWins() throws IOException {
+		
+		String a = dataFile("a.nc", 100);
+		
+		GdalMetadataIndex index = new GdalMetadataIndex(indexFile);
+		
+		index.store(new GdalStructure(a, Collections.<String>emptyList(), Collections.<GdalStructure.ArrayInfo>emptyList()));
+		
+		index.store(structure(a));
+		
+		assertSameStructure(structure(a), new GdalMetadataIndex(indexFile).lookup(a));
+	}
+	
+	@Test
+	public void testTornTail() throws IOException {
+		
+		String a = dataFile("a.nc", 100);
+		
+		String b = dataFile("b.nc", 200);
+		
+		new GdalMetadataIndex(indexFile).store(structure(a));
+		
+		long good = Files.size(indexFile);
+		
+		// a crash part way through appending a record
+		
+		byte[] record = Files.readAllBytes(indexFile);
+		
+		Files.write(indexFile, Arrays.copyOfRange(record, 8, 8 + (record.length - 8) / 2), StandardOpenOption.APPEND);
+		
+		GdalMetadataIndex index = new GdalMetadataIndex(indexFile);
+		
+		assertEquals(good, Files.size(indexFile));
+		
+		assertSameStructure(structure(a), index.lookup(a));
+		
+		// records stored after the repair can be read back
+		
+		index.store(structure(b));
+		
+		GdalMetadataIndex reopened = new GdalMetadataIndex(indexFile);
+		
+		assertSameStructure(structure(a), reopened.lookup(a));
+		
+		assertSameStructure(structure(b), reopened.lookup(b));
+	}
+	
+	@Test
+	public void testTornLength() throws IOException {
+		
+		String a = dataFile("a.nc", 100);
+		
+		new GdalMetadataIndex(indexFile).store(structure(a));
+		
+		long good = Files.size(indexFile);
+		
+		// only part of the next record's length made it to disk
+		
+		Files.write(indexFile, new byte[] {0, 0}, StandardOpenOption.APPEND);
+		
+		GdalMetadataIndex index = new GdalMetadataIndex(indexFile);
+		
+		assertEquals(good, Files.size(indexFile));
+		
+		assertSameStructure(structure(a), index.lookup(a));
+	}
+	
+	@Test
+	public void testStaleEntries() throws IOException {
+		
+		String a = dataFile("a.nc", 100);
+		
+		String b = dataFile("b.nc", 100);
+		
+		GdalMetadataIndex index = new GdalMetadataIndex(indexFile);
+		
+		index.store(structure(a));
+		
+		index.store(structure(b));
+		
+		// a changes size, b changes modification time
+		
+		Files.write(Paths.get(a), new byte[101]);
+		
+		FileTime mtime = Files.getLastModifiedTime(Paths.get(b));
+		
+		Files.setLastModifiedTime(Paths.get(b), FileTime.fromMillis(mtime.toMillis() + 60000));
+		
+		assertNull(index.lookup(a));
+		
+		assertNull(index.lookup(b));
+		
+		GdalMetadataIndex reopened = new GdalMetadataIndex(indexFile);
+		
+		assertNull(reopened.lookup(a));
+		
+		assertNull(reopened.lookup(b));
+		
+		// storing again makes the entries current
+		
+		reopened.store(structure(a));
+		
+		assertSameStructure(structure(a), reopened.lookup(a));
+	}
+	
+	@Test
+	public void testCompact() throws IOException {
+		
+		String a = dataFile("a.nc", 100);
+		
+		GdalMetadataIndex index = new GdalMetadataIndex(indexFile);
+		
+		for (int i = 0; i < 10; i++) {
+			
+			index.store(structure(a));
+		}
+		
+		long before = Files.size(indexFile);
+		
+		index.compact();
+		
+		long after = Files.size(indexFile);
+		
+		assertEquals(8 + (before - 8) / 10, after);
+		
+		assertSameStructure(structure(a), index.lookup(a));
+		
+		assertSameStructure(structure(a), new GdalMetadataIndex(indexFile).lookup(a));
+	}
+	
+	@Test
+	public void testNotAnIndex() throws IOException {
+		
+		Files.write(indexFile, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9});
+		
+		try {
+			
+			new GdalMetadataIndex(indexFile);
+			
+			fail("opened a file that is not an index");
+		}
+		catch (IOException e) {
+			
+			// expected
+		}
+		
+		// the file was not touched
+		
+		assertArrayEquals(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9}, Files.readAllBytes(indexFile));
+	}
+	
+	@Test
+	public void testVsiNamesAreNotIndexed() throws IOException {
+		
+		GdalMetadataIndex index = new GdalMetadataIndex(indexFile);
+		
+		index.store(structure("/vsimem/a.nc"));
+		
+		assertNull(index.lookup("/vsimem/a.nc"));
+		
+		assertEquals(8, Files.size(indexFile));
+	}
+}
@@ -0,0 +1,272 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import org.junit.Test;
+
+/**
+ * Tests of the tile cache's byte bound, eviction order, counters and
+ * invalidation. Only the tests that read files need gdal.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public class TestGdalTileCache {
+
+	private static GdalTileCache.Key key(String file, long stamp, long index) {
+		
+		return new GdalTileCache.Key(file, stamp, "band-1", 0, index, 1);
+	}
+	
+	@Test
+	public void testLeastRecentlyUsedIsEvicted() {
+		
+		// one segment so every tile competes for the same 300 bytes
+		
+		GdalTileCache cache = new GdalTileCache(300, 1);
+		
+		byte[] a = new byte[100];
+		
+		byte[] b = new byte[100];
+		
+		byte[] c = new byte[100];
+		
+		cache.put(key("f", 1, 0), a);
+		
+		cache.put(key("f", 1, 1), b);
+		
+		cache.put(key("f", 1, 2), c);
+		
+		assertEquals(300, cache.size());
+		
+		// touch a so that b becomes the least recently used
+		
+		assertSame(a, cache.get(key("f", 1, 0)));
+		
+		cache.put(key("f", 1, 3), new byte[100]);
+		
+		assertEquals(300, cache.size());
+		
+		assertNull(cache.get(key("f", 1, 1)));
+		
+		assertSame(a, cache.get(key("f", 1, 0)));
+		
+		assertSame(c, cache.get(key("f", 1, 2)));
+		
+		assertNotNull(cache.get(key("f", 1, 3)));
+	}
+	
+	@Test
+	public void testSizeStaysWithinBound() {
+		
+		final long max = 16 * 1024;
+		
+		GdalTileCache cache = new GdalTileCache(max);
+		
+		for (int i = 0; i < 2000; i++) {
+			
+			// a mix of element types and sizes
+			
+			Object tile = (i % 3 == 0) ? new byte[1 + i % 700] :
+							(i % 3 == 1) ? new short[1 + i % 300] :
+								new double[1 + i % 90];
+			
+			cache.put(key("f" + (i % 5), 1, i), tile);
+			
+			assertTrue(cache.size() <= max);
+		}
+		
+		assertTrue(cache.size() > 0);
+	}
+	
+	@Test
+	public void testOversizedTileIsNotCached() {
+		
+		GdalTileCache cache = new GdalTileCache(100, 1);
+		
+		cache.put(key("f", 1, 0), new int[26]);
+		
+		assertEquals(0, cache.size());
+		
+		assertNull(cache.get(key("f", 1, 0)));
+	}
+	
+	@Test
+	public void testReplacingTileKeepsSizeRight() {
+		
+		GdalTileCache cache = new GdalTileCache(1000, 1);
+		
+		cache.put(key("f", 1, 0), new byte[100]);
+		
+		cache.put(key("f", 1, 0), new byte[40]);
+		
+		assertEquals(40, cache.size());
+	}
+	
+	@Test
+	public void testHitAndMissCounters() {
+		
+		GdalTileCache cache = new GdalTileCache(1000, 1);
+		
+		assertEquals(0, cache.hitRate(), 0);
+		
+		assertNull(cache.get(key("f", 1, 0)));
+		
+		cache.put(key("f", 1, 0), new float[10]);
+		
+		assertNotNull(cache.get(key("f", 1, 0)));
+		
+		assertNotNull(cache.get(key("f", 1, 0)));
+		
+		assertNull(cache.get(key("f", 1, 1)));
+		
+		assertEquals(2, cache.hits());
+		
+		assertEquals(2, cache.misses());
+		
+		assertEquals(0.5, cache.hitRate(), 0);
+	}
+	
+	@Test
+	public void testChangedStampMisses() {
+		
+		GdalTileCache cache = new GdalTileCache(1000, 1);
+		
+		cache.put(key("f", 1, 0), new long[10]);
+		
+		// the same tile of the file after its size or time changed
+		
+		assertNull(cache.get(key("f", 2, 0)));
+		
+		assertNotNull(cache.get(key("f", 1, 0)));
+	}
+	
+	@Test
+	public void testInvalidate() {
+		
+		GdalTileCache cache = new GdalTileCache(1000, 1);
+		
+		cache.put(key("f", 1, 0), new byte[10]);
+		
+		cache.put(key("f", 1, 1), new byte[20]);
+		
+		cache.put(key("g", 1, 0), new byte[30]);
+		
+		cache.invalidate("f");
+		
+		assertEquals(30, cache.size());
+		
+		assertNull(cache.get(key("f", 1, 0)));
+		
+		assertNull(cache.get(key("f", 1, 1)));
+		
+		assertNotNull(cache.get(key("g", 1, 0)));
+		
+		cache.clear();
+		
+		assertEquals(0, cache.size());
+	}
+	
+	@Test
+	public void testTemporaryFilesAreNotCached() {
+		
+		GdalReadOptions options = new GdalReadOptions().setTileCache(new GdalTileCache(1000));
+		
+		String temp = VsiNames.tempMemName(".vrt");
+		
+		assertNull(new ReadContext(options, temp).tileKey("band-1", 0, 1));
+		
+		assertNull(new ReadContext(options, "NETCDF:\"" + temp + "\":var").tileKey("band-1", 0, 1));
+	}
+	
+	@Test
+	public void testNoCacheNoKeys() {
+		
+		assertNull(new ReadContext(new GdalReadOptions(), "/data/a.tif").tileKey("band-1", 0, 1));
+	}
+	
+	@Test
+	public void testFileKeys() throws IOException {
+		
+		assumeTrue(SampleFiles.gdalAvailable());
+		
+		String filename = SampleFiles.byteTiff(32, 1, 0);
+		
+		try {
+			
+			GdalReadOptions options = new GdalReadOptions().setTileCache(new GdalTileCache(1000));
+			
+			assertNotNull(new ReadContext(options, filename).tileKey("band-1", 0, 1));
+		}
+		finally {
+			
+			SampleFiles.delete(filename);
+		}
+	}
+	
+	@Test
+	public void testRewrittenFileIsReadAgain() throws IOException {
+		
+		assumeTrue(SampleFiles.gdalAvailable());
+		
+		String filename = SampleFiles.byteTiff(64, 2, 0);
+		
+		String other = SampleFiles.byteTiff(80, 2, 1);
+		
+		try {
+			
+			GdalReadOptions options = new GdalReadOptions().setTileCache(new GdalTileCache(1024 * 1024));
+			
+			long before = GdalTileCache.fileStamp(filename);
+			
+			SampleFiles.assertSameData(Gdal.readAllDatasets(filename), Gdal.read(filename, options).data());
+			
+			// overwrite the file with one of another size
+			
+			Files.copy(Paths.get(other), Paths.get(filename), StandardCopyOption.REPLACE_EXISTING);
+			
+			assertTrue(before != GdalTileCache.fileStamp(filename));
+			
+			SampleFiles.assertSameData(Gdal.readAllDatasets(other), Gdal.read(filename, options).data());
+		}
+		finally {
+			
+			SampleFiles.delete(filename);
+			
+			SampleFiles.delete(other);
+		}
+	}
+}
@@ -0,0 +1,231 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import nom.bdezonia.zorbage.misc.DataBundle;
+
+/**
+ * Reads a file through /vsicurl/ from a local http server that counts the
+ * requests made for it. Every test serves the file under its own path so
+ * gdal's per url caches never answer for another test.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public class TestRemoteReads {
+
+	private static final int SIZE = 1024;
+	
+	private static String filename;
+	
+	private static byte[] contents;
+	
+	private static HttpServer server;
+	
+	private static final ConcurrentHashMap<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+	
+	@BeforeClass
+	public static void setUp() throws IOException {
+		
+		assumeTrue(SampleFiles.gdalAvailable());
+		
+		// one block per row so an unmerged read would make many requests
+		
+		filename = SampleFiles.byteTiff(SIZE, 1, 0, "TILED=NO", "BLOCKYSIZE=1", "COMPRESS=NONE");
+		
+		contents = Files.readAllBytes(Paths.get(filename));
+		
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		
+		server.createContext("/", TestRemoteReads::serve);
+		
+		server.setExecutor(Executors.newCachedThreadPool());
+		
+		server.start();
+	}
+	
+	@AfterClass
+	public static void tearDown() {
+		
+		if (server != null)
+			server.stop(0);
+		
+		if (filename != null)
+			SampleFiles.delete(filename);
+	}
+	
+	@Test
+	public void testRemoteReadMatchesLocalRead() {
+		
+		DataBundle local = Gdal.readAllDatasets(filename);
+		
+		DataBundle remote = Gdal.readAllDatasets(url("/match/scene.tif"));
+		
+		SampleFiles.assertSameData(local, remote);
+		
+		assertTrue(requests("/match/scene.tif") > 0);
+	}
+	
+	@Test
+	public void testRemoteOptimizedReadMakesFewerRequests() {
+		
+		DataBundle local = Gdal.readAllDatasets(filename);
+		
+		DataBundle plain = Gdal.readAllDatasets(url("/plain/scene.tif"), new GdalReadOptions());
+		
+		DataBundle tuned = Gdal.readAllDatasets(url("/tuned/scene.tif"), new GdalReadOptions().setRemoteOptimized(true));
+		
+		SampleFiles.assertSameData(local, plain);
+		
+		SampleFiles.assertSameData(local, tuned);
+		
+		int plainRequests = requests("/plain/scene.tif");
+		
+		int tunedRequests = requests("/tuned/scene.tif");
+		
+		assertTrue("tuned read made "+tunedRequests+" requests, plain read made "+plainRequests,
+				tunedRequests <= plainRequests);
+		
+		// merged ranges mean far fewer requests than the file has blocks
+		
+		assertTrue("tuned read made "+tunedRequests+" requests for "+SIZE+" blocks",
+				tunedRequests < SIZE / 8);
+	}
+	
+	@Test
+	public void testNativeReadCallsAreNotRequests() {
+		
+		GdalMetrics metrics = new GdalMetrics();
+		
+		String name = url("/metrics/scene.tif");
+		
+		Gdal.readAllDatasets(name, new GdalReadOptions().setRemoteOptimized(true).setMetrics(metrics));
+		
+		// native read calls count ReadRaster() strips; the server counts
+		//   the http requests they turned into. Both must be positive.
+		
+		assertTrue(metrics.dataset(name).nativeReadCalls() > 0);
+		
+		assertTrue(requests("/metrics/scene.tif") > 0);
+	}
+	
+	private static String url(String path) {
+		
+		return "/vsicurl/http://127.0.0.1:" + server.getAddress().getPort() + path;
+	}
+	
+	private static int requests(String path) {
+		
+		AtomicInteger count = requests.get(path);
+		
+		return (count == null) ? 0 : count.get();
+	}
+	
+	// Serve the test file (with single range support) under any path that
+	//   ends with scene.tif and nothing elsewhere. Only requests for the
+	//   file are counted; gdal's probes for side car files are not.
+	
+	private static void serve(HttpExchange exchange) throws IOException {
+		
+		String path = exchange.getRequestURI().getPath();
+		
+		try {
+			
+			if (!path.endsWith("/scene.tif")) {
+				
+				exchange.sendResponseHeaders(404, -1);
+				
+				return;
+			}
+			
+			requests.computeIfAbsent(path, k -> new AtomicInteger()).incrementAndGet();
+			
+			exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+			
+			if ("HEAD".equals(exchange.getRequestMethod())) {
+				
+				exchange.getResponseHeaders().set("Content-Length", Integer.toString(contents.length));
+				
+				exchange.sendResponseHeaders(200, -1);
+				
+				return;
+			}
+			
+			int start = 0;
+			
+			int end = contents.length - 1;
+			
+			int status = 200;
+			
+			String range = exchange.getRequestHeaders().getFirst("Range");
+			
+			if (range != null && range.startsWith("bytes=") && !range.contains(",")) {
+				
+				String[] bounds = range.substring("bytes=".length()).split("-", -1);
+				
+				start = Integer.parseInt(bounds[0]);
+				
+				if (bounds[1].length() > 0)
+					end = Math.min(end, Integer.parseInt(bounds[1]));
+				
+				status = 206;
+				
+				exchange.getResponseHeaders().set("Content-Range", "bytes "+start+"-"+end+"/"+contents.length);
+			}
+			
+			int length = end - start + 1;
+			
+			exchange.sendResponseHeaders(status, length);
+			
+			try (OutputStream out = exchange.getResponseBody()) {
+				
+				out.write(contents, start, length);
+			}
+			
+		} finally {
+			
+			exchange.close();
+		}
+	}
+}
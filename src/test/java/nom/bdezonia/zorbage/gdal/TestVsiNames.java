@@ -0,0 +1,117 @@
+/*
+ * zorbage-gdal: code for using the gdal data file library to open files into zorbage data structures for further processing
+ *
+ * Copyright (C) 2020-2022 Barry DeZonia
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package nom.bdezonia.zorbage.gdal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+
+import org.junit.Test;
+
+/**
+ * Table driven tests of the translation of URIs into gdal virtual file
+ * system names. None of these tests need gdal.
+ * 
+ * @author Barry DeZonia
+ *
+ */
+public class TestVsiNames {
+
+	// uri, expected gdal name
+	
+	private static final String[][] NAMES = new String[][] {
+		
+		{ "file:/data/a.tif", "/data/a.tif" },
+		{ "/data/a.tif", "/data/a.tif" },
+		{ "http://host/a.tif", "/vsicurl/http://host/a.tif" },
+		{ "https://host/dir/a.tif", "/vsicurl/https://host/dir/a.tif" },
+		{ "ftp://host/a.tif", "/vsicurl/ftp://host/a.tif" },
+		{ "s3://bucket/key/a.tif", "/vsis3/bucket/key/a.tif" },
+		{ "gs://bucket/key/a.tif", "/vsigs/bucket/key/a.tif" },
+		{ "az://container/key/a.tif", "/vsiaz/container/key/a.tif" },
+		{ "azure://container/key/a.tif", "/vsiaz/container/key/a.tif" },
+		{ "zip:file:/data/a.zip!/b/c.tif", "/vsizip//data/a.zip/b/c.tif" },
+		{ "zip:file:/data/a.zip", "/vsizip//data/a.zip" },
+		{ "tar:file:/data/a.tar!/c.tif", "/vsitar//data/a.tar/c.tif" },
+		{ "gzip:file:/data/a.tif.gz", "/vsigzip//data/a.tif.gz" },
+		{ "mem:/name.tif", "/vsimem/name.tif" },
+		{ "mem:name.tif", "/vsimem/name.tif" },
+		
+		// chained names
+		
+		{ "tar:s3://bucket/a.tar!/c.tif", "/vsitar//vsis3/bucket/a.tar/c.tif" },
+		{ "zip:https://host/a.zip!/b/c.tif", "/vsizip//vsicurl/https://host/a.zip/b/c.tif" },
+		{ "gzip:gs://bucket/a.tif.gz", "/vsigzip//vsigs/bucket/a.tif.gz" },
+		{ "zip:gzip:file:/data/a.zip.gz!/c.tif", "/vsizip//vsigzip//data/a.zip.gz/c.tif" },
+		
+		// unknown schemes are handed to /vsicurl/
+		
+		{ "foo://host/a.tif", "/vsicurl/foo://host/a.tif" }
+	};
+	
+	@Test
+	public void testToGdalName() {
+		
+		for (String[] row : NAMES) {
+			
+			assertEquals(row[0], row[1], VsiNames.toGdalName(URI.create(row[0])));
+		}
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testBucketRequired() {
+		
+		VsiNames.toGdalName(URI.create("s3:/key/a.tif"));
+	}
+	
+	@Test
+	public void testIsTemporary() {
+		
+		String temp = VsiNames.tempMemName(".vrt");
+		
+		assertTrue(temp.endsWith(".vrt"));
+		
+		assertTrue(VsiNames.isTemporary(temp));
+		
+		assertTrue(VsiNames.isTemporary(VsiNames.tempMemName()));
+		
+		// subdatasets of temporary files are temporary too
+		
+		assertTrue(VsiNames.isTemporary("NETCDF:\"" + temp + "\":var"));
+		
+		assertFalse(VsiNames.isTemporary("/data/a.tif"));
+		
+		assertFalse(VsiNames.isTemporary("/vsimem/name.tif"));
+		
+		assertFalse(VsiNames.isTemporary(VsiNames.toGdalName(URI.create("mem:/name.tif"))));
+	}
+	
+	@Test
+	public void testTempNamesAreUnique() {
+		
+		assertFalse(VsiNames.tempMemName().equals(VsiNames.tempMemName()));
+	}
+}